@@ -0,0 +1,142 @@
+package com.example.benchmark;
+
+import com.example.config.ReportCacheConfig;
+import com.example.dto.PerformanceReviewRequest;
+import com.example.model.EmployeeInfo;
+import com.example.model.EmployeeScoreStats;
+import com.example.model.PeerScoreRollup;
+import com.example.model.PerformanceMetrics;
+import com.example.model.PerformanceReview;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
+import com.example.repository.PerformanceReviewRepository;
+import com.example.repository.ScoringPolicyRepository;
+import com.example.service.AnalyticsIndex;
+import com.example.service.PeerRankIndex;
+import com.example.service.PerformanceReviewService;
+import com.example.service.RecentReviewKeys;
+import com.example.service.ReportAssembler;
+import com.example.service.ReportCacheInvalidator;
+import com.example.service.ScoringPolicies;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+// Synthetic datasets and in-memory repository stubs, so benchmarks run without Mongo or Kafka
+final class BenchmarkData {
+
+    static final String EMPLOYEE_ID = "emp0";
+    static final String DEPARTMENT_ID = "dept0";
+    static final String ROLE = "role0";
+
+    private BenchmarkData() {
+    }
+
+    // size reviews for EMPLOYEE_ID, one every two weeks going back from today
+    static List<PerformanceReview> reviews(int size, long seed) {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        List<PerformanceReview> reviews = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PerformanceReview review = new PerformanceReview();
+            review.setId(Integer.toHexString(size - i));
+            review.setEmployeeId(EMPLOYEE_ID);
+            review.setReviewerId("reviewer" + random.nextInt(50));
+            review.setReviewDate(today.minusWeeks(2L * i));
+            review.setMetrics(metrics(random));
+            review.setEmployeeInfo(new EmployeeInfo(DEPARTMENT_ID, ROLE));
+            review.setComments("Synthetic review comment " + i);
+            review.calculateOverallScore();
+            reviews.add(review);
+        }
+        return reviews;
+    }
+
+    static PerformanceReviewRequest request(Random random) {
+        PerformanceReviewRequest request = new PerformanceReviewRequest();
+        request.setEmployeeId("emp" + random.nextInt(10_000));
+        request.setReviewerId("reviewer" + random.nextInt(50));
+        request.setMetrics(metrics(random));
+        request.setEmployeeInfo(new EmployeeInfo(DEPARTMENT_ID, ROLE));
+        request.setComments("Synthetic review comment");
+        return request;
+    }
+
+    static PerformanceMetrics metrics(Random random) {
+        return new PerformanceMetrics(random.nextInt(101), random.nextInt(101), random.nextInt(101));
+    }
+
+    // Service wired to stubs that serve EMPLOYEE_ID's history and a department of peers
+    // shaped like what the real Mongo queries would return
+    static PerformanceReviewService service(List<PerformanceReview> history, int peers, long seed) {
+        return service(history, peers, seed, Duration.ZERO);
+    }
+
+    // As above, with every repository call sleeping for latency to stand in for a Mongo round trip
+    static PerformanceReviewService service(List<PerformanceReview> history, int peers, long seed, Duration latency) {
+        Random random = new Random(seed);
+        List<PeerScoreRollup> peerRollups = new ArrayList<>(peers);
+        List<PeerScoreRollupRepository.DepartmentResult> departmentResults = new ArrayList<>(peers);
+        for (int i = 0; i < peers; i++) {
+            double score = random.nextDouble() * 100;
+            peerRollups.add(new PeerScoreRollup("rollup" + i, DEPARTMENT_ID, ROLE, "emp" + i, 1, score, LocalDate.now(), List.of()));
+            departmentResults.add(new PeerScoreRollupRepository.DepartmentResult("emp" + i, score, ROLE));
+        }
+
+        EmployeeScoreStats stats = new EmployeeScoreStats();
+        stats.setEmployeeId(EMPLOYEE_ID);
+        stats.setDepartmentId(DEPARTMENT_ID);
+        stats.setRole(ROLE);
+        for (PerformanceReview review : history) {
+            stats.setReviewCount(stats.getReviewCount() + 1);
+            stats.setScoreSum(stats.getScoreSum() + review.getOverallScore());
+            stats.getMonthlyBuckets().merge(YearMonth.from(review.getReviewDate()).toString(),
+                    new EmployeeScoreStats.ScoreBucket(review.getOverallScore(), 1),
+                    (a, b) -> new EmployeeScoreStats.ScoreBucket(a.getSum() + b.getSum(), a.getCount() + b.getCount()));
+        }
+
+        PerformanceReviewRepository reviewRepository = stub(PerformanceReviewRepository.class, latency, Map.of(
+                "streamByEmployeeIdOrderByReviewDateDesc", args -> history.stream(),
+                "findReviewPage", args -> history.subList(0, Math.min(history.size(), (int) args[3]))));
+        EmployeeScoreStatsRepository statsRepository = stub(EmployeeScoreStatsRepository.class, latency, Map.of(
+                "findById", args -> Optional.of(stats)));
+        PeerScoreRollupRepository rollupRepository = stub(PeerScoreRollupRepository.class, latency, Map.of(
+                "findByDepartmentIdAndRole", args -> peerRollups,
+                "getDepartmentAggregation", args -> departmentResults));
+        // No department has a policy of its own, so every review uses the default weights
+        ScoringPolicyRepository policyRepository = stub(ScoringPolicyRepository.class, latency, Map.of(
+                "findById", args -> Optional.empty()));
+
+        ReportCacheInvalidator cacheInvalidator = new ReportCacheInvalidator(new CaffeineCacheManager(
+                ReportCacheConfig.EMPLOYEE_PERFORMANCE, ReportCacheConfig.PEER_COMPARISON, ReportCacheConfig.DEPARTMENT_SUMMARY));
+        return new PerformanceReviewService(reviewRepository, statsRepository, rollupRepository, cacheInvalidator,
+                new PeerRankIndex(rollupRepository, 1000, Duration.ofMinutes(1)), new ReportAssembler(),
+                new RecentReviewKeys(1000, Duration.ofHours(1)),
+                new AnalyticsIndex(reviewRepository, new SimpleMeterRegistry(), false, 16),
+                new ScoringPolicies(policyRepository, 1000, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Duration latency, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException("Not stubbed: " + method.getName());
+            }
+            if (!latency.isZero()) {
+                Thread.sleep(latency);
+            }
+            return answer.apply(args);
+        });
+    }
+}
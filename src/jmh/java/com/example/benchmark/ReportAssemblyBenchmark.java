@@ -0,0 +1,61 @@
+package com.example.benchmark;
+
+import com.example.dto.DepartmentSummary;
+import com.example.dto.PeerComparison;
+import com.example.dto.PerformanceReport;
+import com.example.service.PerformanceReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The service's stream pipelines over stubbed repository results; no Mongo latency included
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportAssemblyBenchmark {
+
+    // Reviews in the employee's history and employees in the department
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private PerformanceReviewService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = BenchmarkData.service(BenchmarkData.reviews(size, 42), size, 42);
+    }
+
+    @Benchmark
+    public PerformanceReport employeePerformance() {
+        return service.getEmployeePerformance(BenchmarkData.EMPLOYEE_ID);
+    }
+
+    @Benchmark
+    public PerformanceReport employeePerformancePage() {
+        return service.getEmployeePerformance(BenchmarkData.EMPLOYEE_ID, null, 50);
+    }
+
+    @Benchmark
+    public PeerComparison peerComparison() {
+        return service.getPeerComparison(BenchmarkData.EMPLOYEE_ID);
+    }
+
+    @Benchmark
+    public DepartmentSummary departmentSummary() {
+        return service.getDepartmentSummary(BenchmarkData.DEPARTMENT_ID);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.benchmark;
+
+import com.example.dto.PerformanceReviewRequest;
+import com.example.model.PerformanceMetrics;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoringEngine;
+import com.example.service.PerformanceReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Per-review validation and scoring on the ingest path. Run with -prof gc to see allocation
+// per operation: scoring allocates nothing and createReview only the PerformanceReview it returns
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"1000"})
+    private int size;
+
+    private List<PerformanceReview> reviews;
+    private List<PerformanceReviewRequest> requests;
+    private PerformanceReviewService service;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reviews = BenchmarkData.reviews(size, 42);
+        Random random = new Random(42);
+        requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            requests.add(BenchmarkData.request(random));
+        }
+        service = BenchmarkData.service(List.of(), 0, 42);
+    }
+
+    @Benchmark
+    public double calculateOverallScore() {
+        PerformanceReview review = reviews.get(Math.floorMod(next++, size));
+        review.calculateOverallScore();
+        return review.getOverallScore();
+    }
+
+    @Benchmark
+    public double score() {
+        PerformanceMetrics metrics = requests.get(Math.floorMod(next++, size)).getMetrics();
+        return ScoringEngine.score(metrics.getGoalAchievement(), metrics.getSkillLevel(), metrics.getTeamwork());
+    }
+
+    @Benchmark
+    public void createReview(Blackhole blackhole) {
+        blackhole.consume(service.createReview(requests.get(Math.floorMod(next++, size))));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.benchmark;
+
+import com.example.config.KafkaConfig;
+import com.example.dto.PerformanceReport;
+import com.example.dto.PerformanceReviewRequest;
+import com.example.service.PerformanceReviewService;
+import com.example.service.ReviewWireFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the Kafka/REST request payload and the report response, against the
+// binary Kafka wire format
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    // Reviews in the serialized report
+    @Param({"10", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private String requestJson;
+    private byte[] requestBytes;
+    private byte[] requestBinary;
+    private PerformanceReport report;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Same mapper configuration the application uses
+        objectMapper = new KafkaConfig().objectMapper();
+        requestJson = objectMapper.writeValueAsString(BenchmarkData.request(new Random(42)));
+        requestBytes = requestJson.getBytes();
+        requestBinary = ReviewWireFormat.encode(BenchmarkData.request(new Random(42)));
+        PerformanceReviewService service = BenchmarkData.service(BenchmarkData.reviews(size, 42), 0, 42);
+        report = service.getEmployeePerformance(BenchmarkData.EMPLOYEE_ID);
+    }
+
+    @Benchmark
+    public PerformanceReviewRequest deserializeRequestFromString() throws Exception {
+        return objectMapper.readValue(requestJson, PerformanceReviewRequest.class);
+    }
+
+    @Benchmark
+    public PerformanceReviewRequest deserializeRequestFromBytes() throws Exception {
+        return objectMapper.readValue(requestBytes, PerformanceReviewRequest.class);
+    }
+
+    // The Kafka listeners' path for records in the binary wire format
+    @Benchmark
+    public PerformanceReviewRequest deserializeRequestFromBinary() {
+        return ReviewWireFormat.decode(requestBinary);
+    }
+
+    @Benchmark
+    public byte[] serializeReport() throws Exception {
+        return objectMapper.writeValueAsBytes(report);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.benchmark;
+
+import com.example.controller.PerformanceReviewController;
+import com.example.service.AsyncReviewWriter;
+import com.example.service.BatchSubmissionService;
+import com.example.service.PerformanceReviewService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Load test for GET /employees/{id}/performance on Tomcat's platform-thread pool and on virtual
+// threads. The real controller and service run against repository stubs that sleep for every
+// call in place of a Mongo round trip, and report caching is left off, so every request blocks.
+// Arguments: [connections] [requests per connection] [simulated Mongo latency in ms]
+public class VirtualThreadLoadTest {
+
+    private static final String PATH = "/employees/" + BenchmarkData.EMPLOYEE_ID + "/performance";
+
+    public static void main(String[] args) throws Exception {
+        // DevTools is on the test classpath and would otherwise relaunch main in a restart class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int requestsPerConnection = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Duration latency = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 20);
+
+        System.out.printf("%d connections x %d requests, %d ms per repository call%n",
+                connections, requestsPerConnection, latency.toMillis());
+        System.out.printf("%-10s %12s %10s %10s %10s%n", "threads", "requests/s", "p50 ms", "p99 ms", "errors");
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            Result result = run(virtualThreads, connections, requestsPerConnection, latency);
+            System.out.printf("%-10s %12.0f %10.1f %10.1f %10d%n", virtualThreads ? "virtual" : "platform",
+                    result.throughput(), result.percentile(0.50), result.percentile(0.99), result.errors());
+        }
+    }
+
+    private static Result run(boolean virtualThreads, int connections, int requestsPerConnection,
+                              Duration latency) throws Exception {
+        LoadTestApplication.latency = latency;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadTestApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + PATH);
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(clients)
+                        .build();
+                // Warm up the server and open every connection before measuring
+                load(client, clients, uri, connections, 1);
+
+                long start = System.nanoTime();
+                Result result = load(client, clients, uri, connections, requestsPerConnection);
+                return result.withElapsed(System.nanoTime() - start);
+            }
+        }
+    }
+
+    // Each connection is a client thread sending its requests back to back
+    private static Result load(HttpClient client, ExecutorService clients, URI uri,
+                               int connections, int requestsPerConnection) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        List<Future<long[]>> futures = new ArrayList<>(connections);
+        for (int c = 0; c < connections; c++) {
+            futures.add(clients.submit(() -> {
+                long[] latencies = new long[requestsPerConnection];
+                for (int i = 0; i < requestsPerConnection; i++) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = response.statusCode() == 200 ? System.nanoTime() - sent : -1;
+                    } catch (Exception e) {
+                        latencies[i] = -1;
+                    }
+                }
+                return latencies;
+            }));
+        }
+
+        long[] latencies = new long[connections * requestsPerConnection];
+        int recorded = 0;
+        int errors = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                if (latency < 0) {
+                    errors++;
+                } else {
+                    latencies[recorded++] = latency;
+                }
+            }
+        }
+        long[] successful = Arrays.copyOf(latencies, recorded);
+        Arrays.sort(successful);
+        return new Result(successful, errors, 0);
+    }
+
+    private record Result(long[] sortedLatencies, int errors, long elapsedNanos) {
+
+        Result withElapsed(long elapsedNanos) {
+            return new Result(sortedLatencies, errors, elapsedNanos);
+        }
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        double percentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    // Just the web layer and the real controller, without Mongo, Kafka or actuator
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @Import(PerformanceReviewController.class)
+    static class LoadTestApplication {
+
+        static Duration latency = Duration.ZERO;
+
+        @Bean
+        PerformanceReviewService performanceReviewService() {
+            return BenchmarkData.service(BenchmarkData.reviews(50, 42), 100, 42, latency);
+        }
+
+        @Bean
+        BatchSubmissionService batchSubmissionService(PerformanceReviewService service, ObjectMapper objectMapper) {
+            return new BatchSubmissionService(service, objectMapper);
+        }
+
+        @Bean
+        AsyncReviewWriter asyncReviewWriter(PerformanceReviewService service) {
+            return new AsyncReviewWriter(service, new SimpleMeterRegistry(), false, 1, 1, "reject",
+                    Duration.ZERO, 0, Duration.ZERO, Duration.ZERO);
+        }
+    }
+}
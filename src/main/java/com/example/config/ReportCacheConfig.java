@@ -0,0 +1,70 @@
+package com.example.config;
+
+import com.example.dto.DepartmentSummary;
+import com.example.dto.PerformanceReport;
+import com.example.dto.PerformanceTrends;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+@EnableCaching
+@Configuration
+public class ReportCacheConfig {
+
+    public static final String EMPLOYEE_PERFORMANCE = "employeePerformance";
+    public static final String PEER_COMPARISON = "peerComparison";
+    public static final String DEPARTMENT_SUMMARY = "departmentSummary";
+
+    // A full report can list thousands of reviews and a peer comparison none, so the bound is
+    // on weight rather than on entry count
+    @Value("${reports.cache.maximum-weight:200000}")
+    private long maximumWeight;
+
+    @Value("${reports.cache.expire-after-write:5m}")
+    private Duration expireAfterWrite;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Each cache is bounded separately; the TTL caps staleness for anything invalidation misses
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((key, value) -> weigh(value))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .executor(Executors.newVirtualThreadPerTaskExecutor()));
+        // Loads run as futures on their own virtual threads instead of inside the map's compute
+        // lock, where a blocking Mongo call would pin the request's virtual thread to its carrier
+        cacheManager.setAsyncCacheMode(true);
+        // Declared up front so the caches exist at startup and get hit/miss/eviction metrics
+        cacheManager.setCacheNames(List.of(EMPLOYEE_PERFORMANCE, PEER_COMPARISON, DEPARTMENT_SUMMARY));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+
+    // One per report, plus one per review, month or employee it lists
+    public static int weigh(Object value) {
+        if (value instanceof PerformanceReport report) {
+            return 1 + size(report.getReviews());
+        }
+        if (value instanceof PerformanceTrends trends) {
+            return 1 + size(trends.getMonths());
+        }
+        if (value instanceof DepartmentSummary summary) {
+            return 1 + size(summary.getTopPerformers()) + size(summary.getLowPerformers());
+        }
+        return 1;
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.config;
+
+import com.example.service.KafkaConsumerService;
+import com.example.service.ReviewRetryRouter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.KafkaListenerConfigurer;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistrar;
+import org.springframework.kafka.config.MethodKafkaListenerEndpoint;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+
+import java.lang.reflect.Method;
+
+// One listener container per retry topic. A container waiting out the backoff of its next
+// record pauses its consumer, and every record on a topic has the same delay, so a topic
+// never holds back records of another that are already due
+@Configuration
+public class RetryListenerConfig implements KafkaListenerConfigurer {
+
+    public static final String GROUP_ID = "performance-review-retry-group";
+
+    private final KafkaConsumerService kafkaConsumerService;
+    private final ReviewRetryRouter retryRouter;
+    private final ConcurrentKafkaListenerContainerFactory<String, byte[]> retryListenerContainerFactory;
+
+    public RetryListenerConfig(KafkaConsumerService kafkaConsumerService,
+                               ReviewRetryRouter retryRouter,
+                               ConcurrentKafkaListenerContainerFactory<String, byte[]> retryListenerContainerFactory) {
+        this.kafkaConsumerService = kafkaConsumerService;
+        this.retryRouter = retryRouter;
+        this.retryListenerContainerFactory = retryListenerContainerFactory;
+    }
+
+    @Override
+    public void configureKafkaListeners(KafkaListenerEndpointRegistrar registrar) {
+        Method consumeRetry;
+        try {
+            consumeRetry = KafkaConsumerService.class.getMethod("consumeRetry", ConsumerRecord.class, Acknowledgment.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+
+        for (String topic : retryRouter.getRetryTopics()) {
+            MethodKafkaListenerEndpoint<String, byte[]> endpoint = new MethodKafkaListenerEndpoint<>();
+            endpoint.setId(topic + "-listener");
+            endpoint.setGroupId(GROUP_ID);
+            endpoint.setTopics(topic);
+            endpoint.setBean(kafkaConsumerService);
+            endpoint.setMethod(consumeRetry);
+            endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+            registrar.registerEndpoint(endpoint, retryListenerContainerFactory);
+        }
+    }
+}
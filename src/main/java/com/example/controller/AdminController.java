@@ -0,0 +1,146 @@
+package com.example.controller;
+
+import com.example.service.AggregateRebuildService;
+import com.example.service.AnalyticsIndex;
+import com.example.service.BackfillService;
+import com.example.service.DeadLetterReplayService;
+import com.example.service.IndexManagementService;
+import com.example.service.ScoringPolicies;
+import com.example.model.BackfillCheckpoint;
+import com.example.model.ScoringPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private AggregateRebuildService aggregateRebuildService;
+
+    @Autowired
+    private IndexManagementService indexManagementService;
+
+    @Autowired
+    private DeadLetterReplayService deadLetterReplayService;
+
+    @Autowired
+    private AnalyticsIndex analyticsIndex;
+
+    @Autowired
+    private ScoringPolicies scoringPolicies;
+
+    @Autowired
+    private BackfillService backfillService;
+
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<Void> rebuildAggregates() {
+        aggregateRebuildService.rebuildAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    // Picks up reviews saved by other instances since the analytics index was loaded
+    @PostMapping("/analytics-index/reload")
+    public ResponseEntity<Void> reloadAnalyticsIndex() {
+        if (!analyticsIndex.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        analyticsIndex.reload();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/scoring-policies")
+    public ResponseEntity<List<ScoringPolicy>> getScoringPolicies() {
+        return ResponseEntity.ok(scoringPolicies.findAll());
+    }
+
+    // Replaces the department's weights, then hands re-scoring to the backfill
+    @PutMapping("/scoring-policies/{departmentId}")
+    public ResponseEntity<Object> putScoringPolicy(
+            @PathVariable String departmentId, @RequestBody Map<String, Double> weights) {
+        if (backfillService.isRunning()) {
+            return backfillRunning();
+        }
+        try {
+            scoringPolicies.save(departmentId, weights);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return rescoreAfterPolicyChange();
+    }
+
+    // Returns the department to the default weights and hands re-scoring to the backfill
+    @DeleteMapping("/scoring-policies/{departmentId}")
+    public ResponseEntity<Object> deleteScoringPolicy(@PathVariable String departmentId) {
+        if (backfillService.isRunning()) {
+            return backfillRunning();
+        }
+        scoringPolicies.delete(departmentId);
+        return rescoreAfterPolicyChange();
+    }
+
+    // The policy is evicted here on save, but other instances hold the old weights until their
+    // refresh interval passes, so the job waits that long; reviews they score before then are
+    // still ahead of its ranges
+    private ResponseEntity<Object> rescoreAfterPolicyChange() {
+        try {
+            return ResponseEntity.accepted().body(backfillService.restartRescore(
+                    Instant.now().plus(scoringPolicies.getRefreshInterval())));
+        } catch (IllegalStateException e) {
+            // Started by another request since the check
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error",
+                    "Policy saved, but a backfill is already running; start the re-score once it has finished"));
+        }
+    }
+
+    private static ResponseEntity<Object> backfillRunning() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "A backfill is already running"));
+    }
+
+    // Re-scores the whole collection in the background, resuming an unfinished run
+    @PostMapping("/backfill/rescore")
+    public ResponseEntity<BackfillCheckpoint> startRescoreBackfill() {
+        try {
+            return ResponseEntity.accepted().body(backfillService.startRescore());
+        } catch (IllegalStateException e) {
+            // Already running on this instance
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/backfill/rescore")
+    public ResponseEntity<BackfillCheckpoint> getRescoreBackfill() {
+        return ResponseEntity.of(backfillService.findRescore());
+    }
+
+    @PostMapping("/backfill/rescore/stop")
+    public ResponseEntity<Void> stopRescoreBackfill() {
+        return backfillService.stop() ? ResponseEntity.accepted().build() : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/indexes")
+    public ResponseEntity<List<String>> ensureIndexes() {
+        return ResponseEntity.ok(indexManagementService.ensureIndexes());
+    }
+
+    // Sends dead-lettered reviews back through the main topic, e.g. once a bad deploy is fixed
+    @PostMapping("/kafka/dead-letters/replay")
+    public ResponseEntity<Map<String, Integer>> replayDeadLetters(
+            @RequestParam(defaultValue = "1000") int max) throws Exception {
+        return ResponseEntity.ok(Map.of("replayed", deadLetterReplayService.replay(max)));
+    }
+}
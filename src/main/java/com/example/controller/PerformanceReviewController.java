@@ -1,34 +1,161 @@
 package com.example.controller;
 
+import com.example.dto.BatchItemResult;
 import com.example.dto.DepartmentSummary;
 import com.example.dto.PeerComparison;
 import com.example.dto.PerformanceReport;
 import com.example.dto.PerformanceReviewRequest;
+import com.example.dto.PerformanceTrends;
 import com.example.dto.SubmissionResponse;
+import com.example.service.AsyncReviewWriter;
+import com.example.service.BatchSubmissionService;
 import com.example.service.PerformanceReviewService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 public class PerformanceReviewController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int DEFAULT_TREND_MONTHS = 12;
+    private static final int DEFAULT_TREND_WINDOW = 6;
+
     @Autowired
     private PerformanceReviewService service;
 
+    @Autowired
+    private BatchSubmissionService batchSubmissionService;
+
+    @Autowired
+    private AsyncReviewWriter asyncReviewWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/reviews")
     public ResponseEntity<SubmissionResponse> submitReview(@Valid @RequestBody PerformanceReviewRequest request) {
+        if (asyncReviewWriter.isEnabled()) {
+            // 202 with the id the review will be stored under, 200 with the stored id for a
+            // duplicate, or 503 while the write buffer is full
+            SubmissionResponse response = asyncReviewWriter.submit(request);
+            if (AsyncReviewWriter.ACCEPTED.equals(response.getStatus())) {
+                return ResponseEntity.accepted().body(response);
+            }
+            if (SubmissionResponse.DUPLICATE.equals(response.getStatus())) {
+                return ResponseEntity.ok(response);
+            }
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
+        }
         return ResponseEntity.ok(service.submitReview(request));
     }
 
+    // Reads the body item by item and writes results as each chunk is stored, so neither the
+    // request nor the response is held in memory; NDJSON in gives NDJSON results out
+    @PostMapping(value = "/reviews/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public void submitReviews(InputStream body,
+                              @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                              HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON));
+        response.setContentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+                batchSubmissionService.submit(body, result -> {
+                    try {
+                        generator.writeObject(result);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return;
+            }
+
+            Map<String, Integer> totals = new LinkedHashMap<>();
+            totals.put(BatchItemResult.SUBMITTED, 0);
+            totals.put(BatchItemResult.REJECTED, 0);
+            totals.put(BatchItemResult.FAILED, 0);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("results");
+            batchSubmissionService.submit(body, result -> {
+                try {
+                    generator.writeObject(result);
+                    totals.merge(result.getStatus(), 1, Integer::sum);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            for (Map.Entry<String, Integer> total : totals.entrySet()) {
+                generator.writeNumberField(total.getKey(), total.getValue());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    // Without limit or cursor the full history is returned; either one switches to keyset pages
     @GetMapping("/employees/{employeeId}/performance")
-    public ResponseEntity<PerformanceReport> getEmployeePerformance(@PathVariable String employeeId) {
-        return ResponseEntity.ok(service.getEmployeePerformance(employeeId));
+    public ResponseEntity<PerformanceReport> getEmployeePerformance(
+            @PathVariable String employeeId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(service.getEmployeePerformance(employeeId));
+        }
+        return ResponseEntity.ok(service.getEmployeePerformance(employeeId, cursor,
+                limit != null ? limit : DEFAULT_PAGE_SIZE));
+    }
+
+    @GetMapping("/employees/{employeeId}/trends")
+    public ResponseEntity<PerformanceTrends> getEmployeeTrends(
+            @PathVariable String employeeId,
+            @RequestParam(required = false) Integer months,
+            @RequestParam(required = false) Integer window) {
+        return ResponseEntity.ok(service.getEmployeeTrends(employeeId,
+                months != null ? months : DEFAULT_TREND_MONTHS,
+                window != null ? window : DEFAULT_TREND_WINDOW));
+    }
+
+    // Streams the review history as one JSON object per line straight from the Mongo cursor
+    @GetMapping(value = "/employees/{employeeId}/reviews", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamEmployeeReviews(@PathVariable String employeeId) {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<PerformanceReport.Review> reviews = service.streamEmployeeReviews(employeeId)) {
+                Iterator<PerformanceReport.Review> iterator = reviews.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @GetMapping("/employees/{employeeId}/peer-comparison")
@@ -0,0 +1,47 @@
+package com.example.controller;
+
+import com.example.dto.DepartmentSummary;
+import com.example.dto.PeerComparison;
+import com.example.dto.PerformanceReport;
+import com.example.service.ReactiveReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Report endpoints backed by the reactive MongoDB driver. The request thread is released while
+// the queries run, and Spring MVC writes the result once the Mono completes
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveReportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ReactiveReportService service;
+
+    @GetMapping("/employees/{employeeId}/performance")
+    public Mono<PerformanceReport> getEmployeePerformance(@PathVariable String employeeId) {
+        return service.getEmployeePerformance(employeeId);
+    }
+
+    // Each review is written and flushed before the next one is requested from the cursor,
+    // so a slow client slows the query instead of filling the heap
+    @GetMapping(value = "/employees/{employeeId}/reviews", produces = NDJSON)
+    public Flux<PerformanceReport.Review> streamEmployeeReviews(@PathVariable String employeeId) {
+        return service.streamEmployeeReviews(employeeId);
+    }
+
+    @GetMapping("/employees/{employeeId}/peer-comparison")
+    public Mono<PeerComparison> getPeerComparison(@PathVariable String employeeId) {
+        return service.getPeerComparison(employeeId);
+    }
+
+    @GetMapping("/departments/{departmentId}/performance-summary")
+    public Mono<DepartmentSummary> getDepartmentSummary(@PathVariable String departmentId) {
+        return service.getDepartmentSummary(departmentId);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    public static final String SUBMITTED = "submitted";
+    public static final String REJECTED = "rejected";
+    public static final String FAILED = "failed";
+    public static final String DUPLICATE = "duplicate";
+
+    // Position of the item in the submitted array or NDJSON stream
+    private int index;
+    private String reviewId;
+    private String status;
+    private String error;
+}
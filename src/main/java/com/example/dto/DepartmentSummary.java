@@ -12,6 +12,8 @@ import java.util.List;
 public class DepartmentSummary {
     private String departmentId;
     private double averageScore;
+    // Everyone in the department, including those in neither list
+    private int employeeCount;
     private List<EmployeePerformance> topPerformers;
     private List<EmployeePerformance> lowPerformers;
 
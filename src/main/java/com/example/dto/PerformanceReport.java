@@ -1,5 +1,6 @@
 package com.example.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -16,6 +17,9 @@ public class PerformanceReport {
     private String departmentId;
     private List<Review> reviews;
     private Trends trends;
+    // Keyset cursor for the next page of reviews; only set on paginated requests with more reviews
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 
     @Data
     @NoArgsConstructor
@@ -26,4 +26,8 @@ public class PerformanceReviewRequest {
     private String reviewDate;
     
     private String comments;
+
+    // Optional; a second review with the same key is dropped as a duplicate. Kafka records
+    // without one are keyed by the position and timestamp they were first consumed at
+    private String idempotencyKey;
 }
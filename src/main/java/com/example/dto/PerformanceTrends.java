@@ -0,0 +1,35 @@
+package com.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PerformanceTrends {
+    private String employeeId;
+    // Months covered by the rolling average of each month
+    private int window;
+    // Average over every month listed; null when none of them has a review
+    private Double averageScore;
+    // averageScore minus the average of the same months a year earlier
+    private Double yearOverYearChange;
+    // Oldest first, ending with the current month
+    private List<Month> months;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Month {
+        private String month; // yyyy-MM
+        private long reviewCount;
+        private Double averageScore;
+        private Double rollingAverage;
+        private Double yearOverYearChange;
+    }
+}
@@ -8,6 +8,10 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class SubmissionResponse {
+    public static final String SUBMITTED = "submitted";
+    // The idempotency key was already used; reviewId is the stored review's, when known
+    public static final String DUPLICATE = "duplicate";
+
     private String reviewId;
     private String status;
 }
@@ -0,0 +1,21 @@
+package com.example.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+// Records that a derived collection was rebuilt from performance_reviews at a given layout
+// version; from then on it is kept current by incremental writes
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "aggregate_versions")
+public class AggregateVersion {
+    @Id
+    private String aggregate;
+    private int version;
+    private Instant rebuiltAt;
+}
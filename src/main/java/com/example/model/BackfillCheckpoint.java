@@ -0,0 +1,52 @@
+package com.example.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Progress of a backfill over performance_reviews, split into _id ranges that are worked on
+// in parallel; each range records the last review it finished so a stopped job can resume
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "backfill_checkpoints")
+public class BackfillCheckpoint {
+    public static final String RUNNING = "running";
+    public static final String STOPPED = "stopped";
+    public static final String FAILED = "failed";
+    public static final String COMPLETED = "completed";
+
+    @Id
+    private String job;
+    private String status;
+    private List<Range> ranges = new ArrayList<>();
+    private Instant startedAt;
+    private Instant updatedAt;
+    private String error;
+    // Workers wait until then, e.g. for every instance to pick up a changed scoring policy
+    private Instant notBefore;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Range {
+        // Inclusive lower and exclusive upper _id; null leaves that end open
+        private String fromId;
+        private String toId;
+        private String lastId;
+        private long processed;
+        private long updated;
+        private long skipped;
+        private boolean done;
+
+        public Range(String fromId, String toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+    }
+}
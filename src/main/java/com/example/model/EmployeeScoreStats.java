@@ -0,0 +1,74 @@
+package com.example.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Running per-employee aggregates, maintained incrementally as reviews are saved
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "employee_score_stats")
+public class EmployeeScoreStats {
+    @Id
+    private String employeeId;
+    private long reviewCount;
+    private double scoreSum;
+    private String departmentId;
+    private String role;
+    private LocalDate latestReviewDate;
+    // Score sums per review month, keyed by yyyy-MM; one entry per month of history keeps the
+    // document small, and report and trend windows are answered from these
+    private Map<String, ScoreBucket> monthlyBuckets = new HashMap<>();
+    // Ids of the most recently recorded reviews, which make recording a review again a no-op
+    private List<String> appliedReviewIds = new ArrayList<>();
+
+    public double averageScore() {
+        return reviewCount == 0 ? 0.0 : scoreSum / reviewCount;
+    }
+
+    // Average of reviews dated from through to, or 0 when there are none. The buckets cover
+    // whole months, so the reviews of the first and last month that fall outside the window
+    // are passed in and taken back out; any others among them are ignored. yyyy-MM keys sort
+    // like the months they name, so they are compared as strings
+    public double averageScoreBetween(LocalDate from, LocalDate to, List<PerformanceReview> edgeReviews) {
+        YearMonth firstMonth = YearMonth.from(from);
+        YearMonth lastMonth = YearMonth.from(to);
+        String fromMonth = firstMonth.toString();
+        String toMonth = lastMonth.toString();
+        double sum = 0;
+        long count = 0;
+        for (Map.Entry<String, ScoreBucket> entry : monthlyBuckets.entrySet()) {
+            String month = entry.getKey();
+            if (month.compareTo(fromMonth) >= 0 && month.compareTo(toMonth) <= 0) {
+                sum += entry.getValue().getSum();
+                count += entry.getValue().getCount();
+            }
+        }
+        for (PerformanceReview review : edgeReviews) {
+            LocalDate reviewDate = review.getReviewDate();
+            if ((reviewDate.isBefore(from) && YearMonth.from(reviewDate).equals(firstMonth))
+                    || (reviewDate.isAfter(to) && YearMonth.from(reviewDate).equals(lastMonth))) {
+                sum -= review.getOverallScore();
+                count--;
+            }
+        }
+        return count <= 0 ? 0.0 : sum / count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScoreBucket {
+        private double sum;
+        private long count;
+    }
+}
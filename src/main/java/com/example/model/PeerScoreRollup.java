@@ -0,0 +1,29 @@
+package com.example.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+import java.util.List;
+
+// Running score totals per employee within a department and role
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "peer_score_rollups")
+@CompoundIndex(name = "department_role_employee", def = "{ 'departmentId': 1, 'role': 1, 'employeeId': 1 }", unique = true)
+public class PeerScoreRollup {
+    @Id
+    private String id;
+    private String departmentId;
+    private String role;
+    private String employeeId;
+    private long reviewCount;
+    private double scoreSum;
+    private LocalDate latestReviewDate;
+    // Ids of the most recently recorded reviews, as in EmployeeScoreStats
+    private List<String> appliedReviewIds;
+}
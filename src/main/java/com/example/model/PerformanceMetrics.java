@@ -1,10 +1,12 @@
 package com.example.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -21,4 +23,12 @@ public class PerformanceMetrics {
     @Min(value = 0, message = "Teamwork must be at least 0")
     @Max(value = 100, message = "Teamwork cannot exceed 100")
     private double teamwork;
+
+    // Further named metrics, each 0-100, for department scoring policies to weight
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, Double> additional;
+
+    public PerformanceMetrics(double goalAchievement, double skillLevel, double teamwork) {
+        this(goalAchievement, skillLevel, teamwork, null);
+    }
 }
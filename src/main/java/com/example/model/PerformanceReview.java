@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 
@@ -11,6 +13,8 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "performance_reviews")
+// Employee history, date-range lookups and keyset pagination on (reviewDate, _id)
+@CompoundIndex(name = "employee_review_date", def = "{ 'employeeId': 1, 'reviewDate': -1, '_id': -1 }")
 public class PerformanceReview {
     @Id
     private String id;
@@ -21,20 +25,11 @@ public class PerformanceReview {
     private EmployeeInfo employeeInfo;
     private String comments;
     private double overallScore;
+    // Sparse, so reviews submitted without a key are never treated as duplicates of each other
+    @Indexed(name = "idempotency_key", unique = true, sparse = true)
+    private String idempotencyKey;
 
     public void calculateOverallScore() {
-        validateMetricRange(metrics.getGoalAchievement(), "Goal Achievement");
-        validateMetricRange(metrics.getSkillLevel(), "Skill Level");
-        validateMetricRange(metrics.getTeamwork(), "Teamwork");
-
-        this.overallScore = (metrics.getGoalAchievement() * 0.4) +
-                          (metrics.getSkillLevel() * 0.3) +
-                          (metrics.getTeamwork() * 0.3);
-    }
-
-    private void validateMetricRange(double value, String metricName) {
-        if (value < 0 || value > 100) {
-            throw new IllegalArgumentException(metricName + " must be between 0 and 100");
-        }
+        this.overallScore = ScoringEngine.score(metrics);
     }
 }
@@ -0,0 +1,9 @@
+package com.example.model;
+
+// A review given a new overallScore by re-scoring, with the score it was read with
+public record ScoreChange(PerformanceReview review, double previousScore) {
+
+    public double delta() {
+        return review.getOverallScore() - previousScore;
+    }
+}
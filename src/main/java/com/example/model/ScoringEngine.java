@@ -0,0 +1,100 @@
+package com.example.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+
+// Validation, default weighting and rounding of review scores on primitives, shared by every
+// ingest path and the reports. Nothing is allocated unless a metric is out of range;
+// department-specific weightings are ScoringWeights
+public final class ScoringEngine {
+
+    public static final double GOAL_ACHIEVEMENT_WEIGHT = 0.4;
+    public static final double SKILL_LEVEL_WEIGHT = 0.3;
+    public static final double TEAMWORK_WEIGHT = 0.3;
+
+    private static final double MIN_METRIC = 0;
+    private static final double MAX_METRIC = 100;
+
+    private static volatile Day today = Day.containing(System.currentTimeMillis());
+
+    private ScoringEngine() {
+    }
+
+    // Default weighting of the built-in metrics, after validating every metric present
+    public static double score(PerformanceMetrics metrics) {
+        validate(metrics);
+        return weigh(metrics.getGoalAchievement(), metrics.getSkillLevel(), metrics.getTeamwork());
+    }
+
+    // Weighted overall score; throws naming the first metric outside 0-100
+    public static double score(double goalAchievement, double skillLevel, double teamwork) {
+        validate(goalAchievement, skillLevel, teamwork);
+        return weigh(goalAchievement, skillLevel, teamwork);
+    }
+
+    // The built-in metrics and any additional ones must all be within 0-100
+    public static void validate(PerformanceMetrics metrics) {
+        validate(metrics.getGoalAchievement(), metrics.getSkillLevel(), metrics.getTeamwork());
+        Map<String, Double> additional = metrics.getAdditional();
+        if (additional != null && !additional.isEmpty()) {
+            for (Map.Entry<String, Double> metric : additional.entrySet()) {
+                if (metric.getValue() == null || !inRange(metric.getValue())) {
+                    throw new IllegalArgumentException(metric.getKey() + " must be between 0 and 100");
+                }
+            }
+        }
+    }
+
+    public static void validate(double goalAchievement, double skillLevel, double teamwork) {
+        if (!inRange(goalAchievement) || !inRange(skillLevel) || !inRange(teamwork)) {
+            throw outOfRange(goalAchievement, skillLevel, teamwork);
+        }
+    }
+
+    private static double weigh(double goalAchievement, double skillLevel, double teamwork) {
+        return (goalAchievement * GOAL_ACHIEVEMENT_WEIGHT) +
+               (skillLevel * SKILL_LEVEL_WEIGHT) +
+               (teamwork * TEAMWORK_WEIGHT);
+    }
+
+    // False for NaN as well as for values outside 0-100
+    public static boolean inRange(double metric) {
+        return metric >= MIN_METRIC && metric <= MAX_METRIC;
+    }
+
+    // Scores are reported to two decimal places
+    public static double round(double score) {
+        return Math.round(score * 100.0) / 100.0;
+    }
+
+    // The date new reviews are filed under; recomputed only when the day changes, so the
+    // system time zone is read once a day
+    public static LocalDate today() {
+        Day day = today;
+        long now = System.currentTimeMillis();
+        if (now < day.startMillis() || now >= day.endMillis()) {
+            day = Day.containing(now);
+            today = day;
+        }
+        return day.date();
+    }
+
+    private static IllegalArgumentException outOfRange(double goalAchievement, double skillLevel, double teamwork) {
+        String metric = !inRange(goalAchievement) ? "Goal Achievement"
+                : !inRange(skillLevel) ? "Skill Level"
+                : "Teamwork";
+        return new IllegalArgumentException(metric + " must be between 0 and 100");
+    }
+
+    private record Day(LocalDate date, long startMillis, long endMillis) {
+        static Day containing(long millis) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+            return new Day(date,
+                    date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+        }
+    }
+}
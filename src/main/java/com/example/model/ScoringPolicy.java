@@ -0,0 +1,24 @@
+package com.example.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.Map;
+
+// How one department weights review metrics; departments without a policy use the default
+// weighting of goal achievement, skill level and teamwork
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scoring_policies")
+public class ScoringPolicy {
+    @Id
+    private String departmentId;
+    // Metric name to weight, summing to 1. goalAchievement, skillLevel and teamwork are the
+    // built-in metrics; any other name is read from PerformanceMetrics.additional
+    private Map<String, Double> weights;
+    private Instant updatedAt;
+}
@@ -0,0 +1,99 @@
+package com.example.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A scoring policy compiled once into flat weights: the three built-in metrics as fields and
+// any additional metrics as parallel name and weight arrays, so scoring a review is a dot
+// product whose cost depends only on the policy
+public final class ScoringWeights {
+
+    public static final String GOAL_ACHIEVEMENT = "goalAchievement";
+    public static final String SKILL_LEVEL = "skillLevel";
+    public static final String TEAMWORK = "teamwork";
+
+    public static final ScoringWeights DEFAULT = compile(Map.of(
+            GOAL_ACHIEVEMENT, ScoringEngine.GOAL_ACHIEVEMENT_WEIGHT,
+            SKILL_LEVEL, ScoringEngine.SKILL_LEVEL_WEIGHT,
+            TEAMWORK, ScoringEngine.TEAMWORK_WEIGHT));
+
+    // Weights summing to 1 keep every score within the 0-100 range of its metrics
+    private static final double WEIGHT_SUM_TOLERANCE = 1e-9;
+
+    private final double goalAchievement;
+    private final double skillLevel;
+    private final double teamwork;
+    private final String[] names;
+    private final double[] weights;
+
+    private ScoringWeights(double goalAchievement, double skillLevel, double teamwork,
+                           String[] names, double[] weights) {
+        this.goalAchievement = goalAchievement;
+        this.skillLevel = skillLevel;
+        this.teamwork = teamwork;
+        this.names = names;
+        this.weights = weights;
+    }
+
+    // Throws IllegalArgumentException unless every weight is finite and non-negative and
+    // together they sum to 1
+    public static ScoringWeights compile(Map<String, Double> policy) {
+        if (policy == null || policy.isEmpty()) {
+            throw new IllegalArgumentException("A scoring policy needs at least one weighted metric");
+        }
+        double sum = 0;
+        for (Map.Entry<String, Double> weight : policy.entrySet()) {
+            Double value = weight.getValue();
+            String name = weight.getKey();
+            // Names become field names in the stored policy and metrics
+            if (name == null || name.isBlank() || name.contains(".") || name.startsWith("$")) {
+                throw new IllegalArgumentException("Invalid metric name: " + name);
+            }
+            if (value == null || !Double.isFinite(value) || value < 0) {
+                throw new IllegalArgumentException("Weight of " + weight.getKey() + " must be a non-negative number");
+            }
+            sum += value;
+        }
+        if (Math.abs(sum - 1.0) > WEIGHT_SUM_TOLERANCE) {
+            throw new IllegalArgumentException("Weights must sum to 1, not " + sum);
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (Map.Entry<String, Double> weight : policy.entrySet()) {
+            String name = weight.getKey();
+            if (!name.equals(GOAL_ACHIEVEMENT) && !name.equals(SKILL_LEVEL) && !name.equals(TEAMWORK)
+                    && weight.getValue() > 0) {
+                names.add(name);
+                weights.add(weight.getValue());
+            }
+        }
+        return new ScoringWeights(
+                policy.getOrDefault(GOAL_ACHIEVEMENT, 0.0),
+                policy.getOrDefault(SKILL_LEVEL, 0.0),
+                policy.getOrDefault(TEAMWORK, 0.0),
+                names.toArray(new String[0]),
+                weights.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    // Validates every metric present and throws if one the policy weights is missing
+    public double score(PerformanceMetrics metrics) {
+        ScoringEngine.validate(metrics);
+        double score = (metrics.getGoalAchievement() * goalAchievement) +
+                       (metrics.getSkillLevel() * skillLevel) +
+                       (metrics.getTeamwork() * teamwork);
+        if (names.length == 0) {
+            return score;
+        }
+        Map<String, Double> additional = metrics.getAdditional();
+        for (int i = 0; i < names.length; i++) {
+            Double value = additional == null ? null : additional.get(names[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing metric required by the scoring policy: " + names[i]);
+            }
+            score += value * weights[i];
+        }
+        return score;
+    }
+}
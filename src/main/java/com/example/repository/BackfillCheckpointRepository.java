@@ -0,0 +1,10 @@
+package com.example.repository;
+
+import com.example.model.BackfillCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BackfillCheckpointRepository extends MongoRepository<BackfillCheckpoint, String>,
+        BackfillCheckpointRepositoryCustom {
+}
@@ -0,0 +1,9 @@
+package com.example.repository;
+
+import com.example.model.BackfillCheckpoint;
+
+public interface BackfillCheckpointRepositoryCustom {
+
+    // Replaces one range in place, so workers on different ranges never overwrite each other
+    void saveRange(String job, int index, BackfillCheckpoint.Range range);
+}
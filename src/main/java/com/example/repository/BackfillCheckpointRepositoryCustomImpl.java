@@ -0,0 +1,25 @@
+package com.example.repository;
+
+import com.example.model.BackfillCheckpoint;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+public class BackfillCheckpointRepositoryCustomImpl implements BackfillCheckpointRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public BackfillCheckpointRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void saveRange(String job, int index, BackfillCheckpoint.Range range) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("job").is(job)),
+                new Update().set("ranges." + index, range).set("updatedAt", Instant.now()),
+                BackfillCheckpoint.class);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.repository;
+
+import com.example.model.EmployeeScoreStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EmployeeScoreStatsRepository extends MongoRepository<EmployeeScoreStats, String>,
+        EmployeeScoreStatsRepositoryCustom {
+
+    // Only what trend windows read
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'monthlyBuckets': 1 }")
+    Optional<EmployeeScoreStats> findMonthlyBucketsById(String employeeId);
+}
@@ -0,0 +1,23 @@
+package com.example.repository;
+
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EmployeeScoreStatsRepositoryCustom {
+
+    // Folds saved reviews into their employees' running aggregates with one ordered bulk upsert
+    void recordReviews(List<PerformanceReview> reviews);
+
+    // Moves each employee's score sums by how much a re-scored review changed, leaving the
+    // counts and any concurrent increments alone
+    void applyScoreChanges(List<ScoreChange> changes);
+
+    // Recomputes every employee's aggregates from performance_reviews, replacing each employee's document
+    void rebuildFromReviews();
+
+    // The same for only these employees
+    void rebuildFromReviews(Collection<String> employeeIds);
+}
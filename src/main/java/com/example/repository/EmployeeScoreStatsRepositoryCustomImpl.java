@@ -0,0 +1,174 @@
+package com.example.repository;
+
+import com.example.model.EmployeeScoreStats;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class EmployeeScoreStatsRepositoryCustomImpl implements EmployeeScoreStatsRepositoryCustom {
+
+    // The ids of each employee's most recently recorded reviews. An upsert only matches a
+    // document that lacks the review's id, so recording a review again changes nothing. Only
+    // the last MAX_APPLIED_REVIEW_IDS are kept, which bounds how many reviews of one employee
+    // a single replayed batch can hold and still be skipped
+    static final String APPLIED_REVIEW_IDS = "appliedReviewIds";
+    static final int MAX_APPLIED_REVIEW_IDS = 100;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public EmployeeScoreStatsRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void recordReviews(List<PerformanceReview> reviews) {
+        if (reviews.isEmpty()) {
+            return;
+        }
+
+        List<Pair<Query, Update>> upserts = new ArrayList<>(reviews.size());
+        for (PerformanceReview review : reviews) {
+            String monthlyBucket = "monthlyBuckets." + YearMonth.from(review.getReviewDate());
+            Update update = new Update()
+                    .inc("reviewCount", 1)
+                    .inc("scoreSum", review.getOverallScore())
+                    .inc(monthlyBucket + ".sum", review.getOverallScore())
+                    .inc(monthlyBucket + ".count", 1)
+                    .max("latestReviewDate", review.getReviewDate())
+                    .set("departmentId", review.getEmployeeInfo().getDepartmentId())
+                    .set("role", review.getEmployeeInfo().getRole())
+                    // Day buckets written by earlier versions; months replaced them
+                    .unset("buckets")
+                    .push(APPLIED_REVIEW_IDS).slice(-MAX_APPLIED_REVIEW_IDS).each(review.getId());
+            upserts.add(Pair.of(Query.query(Criteria.where("_id").is(review.getEmployeeId())
+                    .and(APPLIED_REVIEW_IDS).ne(review.getId())), update));
+        }
+
+        // Ordered so that the department and role of an employee's last review win. An upsert
+        // that finds the employee's document already holding the review tries to insert it
+        // again and stops the bulk with a duplicate key; it is settled on its own and the
+        // bulk resumes after it
+        int from = 0;
+        while (from < upserts.size()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, EmployeeScoreStats.class)
+                        .upsert(upserts.subList(from, upserts.size()))
+                        .execute();
+                return;
+            } catch (BulkOperationException e) {
+                BulkWriteError error = e.getErrors().get(0);
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                int failed = from + error.getIndex();
+                upsertOnce(upserts.get(failed));
+                from = failed + 1;
+            }
+        }
+    }
+
+    // A duplicate key also comes from two first reviews of an employee racing to insert the
+    // document, so the upsert is repeated once; only a recorded review fails it again
+    private void upsertOnce(Pair<Query, Update> upsert) {
+        try {
+            mongoTemplate.upsert(upsert.getFirst(), upsert.getSecond(), EmployeeScoreStats.class);
+        } catch (DuplicateKeyException e) {
+            // Already recorded
+        }
+    }
+
+    @Override
+    public void applyScoreChanges(List<ScoreChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // Commutative increments, so the writes need not be ordered, and no upserts: a review
+        // not recorded yet brings its new score along when it is
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmployeeScoreStats.class);
+        for (ScoreChange change : changes) {
+            PerformanceReview review = change.review();
+            bulk.updateOne(Query.query(Criteria.where("_id").is(review.getEmployeeId())), new Update()
+                    .inc("scoreSum", change.delta())
+                    .inc("monthlyBuckets." + YearMonth.from(review.getReviewDate()) + ".sum", change.delta()));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void rebuildFromReviews() {
+        rebuild(List.of());
+    }
+
+    @Override
+    public void rebuildFromReviews(Collection<String> employeeIds) {
+        if (!employeeIds.isEmpty()) {
+            rebuild(List.of(new Document("$match", new Document("employeeId", new Document("$in", employeeIds)))));
+        }
+    }
+
+    private void rebuild(List<Document> match) {
+        // LocalDate is stored as midnight in the JVM's zone, so bucket keys must be rendered in it too
+        String timezone = ZoneId.systemDefault().getId();
+        List<Document> pipeline = new ArrayList<>(match);
+        pipeline.addAll(List.of(
+                new Document("$sort", new Document("reviewDate", 1).append("_id", 1)),
+                new Document("$group", new Document("_id", new Document("employeeId", "$employeeId")
+                                .append("month", new Document("$dateToString", new Document("format", "%Y-%m")
+                                        .append("date", "$reviewDate")
+                                        .append("timezone", timezone))))
+                        .append("sum", new Document("$sum", "$overallScore"))
+                        .append("count", new Document("$sum", 1))
+                        .append("latestReviewDate", new Document("$max", "$reviewDate"))
+                        .append("departmentId", new Document("$last", "$employeeInfo.departmentId"))
+                        .append("role", new Document("$last", "$employeeInfo.role"))
+                        .append(APPLIED_REVIEW_IDS, new Document("$lastN", new Document("input", "$_id")
+                                .append("n", MAX_APPLIED_REVIEW_IDS)))),
+                new Document("$sort", new Document("_id.month", 1)),
+                new Document("$group", new Document("_id", "$_id.employeeId")
+                        .append("reviewCount", new Document("$sum", "$count"))
+                        .append("scoreSum", new Document("$sum", "$sum"))
+                        .append("latestReviewDate", new Document("$max", "$latestReviewDate"))
+                        .append("departmentId", new Document("$last", "$departmentId"))
+                        .append("role", new Document("$last", "$role"))
+                        .append("monthlyBuckets", new Document("$push", new Document("k", "$_id.month")
+                                .append("v", new Document("sum", "$sum").append("count", "$count"))))
+                        .append(APPLIED_REVIEW_IDS, new Document("$push", "$" + APPLIED_REVIEW_IDS))),
+                new Document("$addFields", new Document("monthlyBuckets", new Document("$arrayToObject", "$monthlyBuckets"))
+                        // The ids of the reviews summed above, so that "replace" leaves markers for
+                        // exactly what the totals hold: a review recorded again afterwards is still
+                        // skipped, and none is marked that the totals lack. Latest review dates last
+                        .append(APPLIED_REVIEW_IDS, new Document("$slice", List.of(
+                                new Document("$reduce", new Document("input", "$" + APPLIED_REVIEW_IDS)
+                                        .append("initialValue", List.of())
+                                        .append("in", new Document("$concatArrays", List.of("$$value", "$$this")))),
+                                -MAX_APPLIED_REVIEW_IDS)))),
+                // Merged by _id rather than swapped in with $out, so stats the pipeline does not
+                // produce are left in place instead of dropped with the old collection
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(EmployeeScoreStats.class))
+                        .append("on", "_id")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert"))));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(PerformanceReview.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.repository;
+
+import com.example.model.PeerScoreRollup;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PeerScoreRollupRepository extends MongoRepository<PeerScoreRollup, String>,
+        PeerScoreRollupRepositoryCustom {
+
+    // Every rollup of a cohort is read at once, so the review markers are left behind
+    @Query(value = "{ 'departmentId': ?0, 'role': ?1 }", fields = "{ 'appliedReviewIds': 0 }")
+    List<PeerScoreRollup> findByDepartmentIdAndRole(String departmentId, String role);
+
+    @Aggregation(pipeline = {
+        "{ $match: { 'departmentId': ?0 } }",
+        "{ $sort: { 'latestReviewDate': -1 } }",
+        "{ $group: { _id: '$employeeId', scoreSum: { $sum: '$scoreSum' }, reviewCount: { $sum: '$reviewCount' }, latestRole: { $first: '$role' } } }",
+        "{ $project: { _id: 0, id: '$_id', avgScore: { $divide: ['$scoreSum', '$reviewCount'] }, latestRole: 1 } }"
+    })
+    List<DepartmentResult> getDepartmentAggregation(String departmentId);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    class DepartmentResult {
+        private String id;
+        private double avgScore;
+        private String latestRole;
+    }
+}
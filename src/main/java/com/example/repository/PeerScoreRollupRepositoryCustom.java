@@ -0,0 +1,23 @@
+package com.example.repository;
+
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PeerScoreRollupRepositoryCustom {
+
+    // Adds saved reviews to their (department, role, employee) rollups with one bulk upsert;
+    // returns those that were added, leaving out reviews the rollups already held
+    List<PerformanceReview> recordReviews(List<PerformanceReview> reviews);
+
+    // Moves each rollup's score sum by how much a re-scored review changed
+    void applyScoreChanges(List<ScoreChange> changes);
+
+    // Recomputes every rollup from performance_reviews, merged on the unique department_role_employee index
+    void rebuildFromReviews();
+
+    // The same for only these employees' rollups
+    void rebuildFromReviews(Collection<String> employeeIds);
+}
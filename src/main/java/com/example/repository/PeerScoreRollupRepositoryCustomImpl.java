@@ -0,0 +1,154 @@
+package com.example.repository;
+
+import com.example.model.PeerScoreRollup;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+public class PeerScoreRollupRepositoryCustomImpl implements PeerScoreRollupRepositoryCustom {
+
+    // Recently recorded review ids per rollup, as in EmployeeScoreStatsRepositoryCustomImpl
+    private static final String APPLIED_REVIEW_IDS = EmployeeScoreStatsRepositoryCustomImpl.APPLIED_REVIEW_IDS;
+    private static final int MAX_APPLIED_REVIEW_IDS = EmployeeScoreStatsRepositoryCustomImpl.MAX_APPLIED_REVIEW_IDS;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public PeerScoreRollupRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<PerformanceReview> recordReviews(List<PerformanceReview> reviews) {
+        if (reviews.isEmpty()) {
+            return reviews;
+        }
+
+        List<Pair<Query, Update>> upserts = new ArrayList<>(reviews.size());
+        for (PerformanceReview review : reviews) {
+            Query query = Query.query(Criteria.where("departmentId").is(review.getEmployeeInfo().getDepartmentId())
+                    .and("role").is(review.getEmployeeInfo().getRole())
+                    .and("employeeId").is(review.getEmployeeId())
+                    .and(APPLIED_REVIEW_IDS).ne(review.getId()));
+            Update update = new Update()
+                    .inc("reviewCount", 1)
+                    .inc("scoreSum", review.getOverallScore())
+                    .max("latestReviewDate", review.getReviewDate())
+                    .push(APPLIED_REVIEW_IDS).slice(-MAX_APPLIED_REVIEW_IDS).each(review.getId());
+            upserts.add(Pair.of(query, update));
+        }
+
+        // Only commutative updates, so the writes need not be ordered. A rollup that already
+        // holds the review fails its upsert on the unique department_role_employee index, as
+        // does one lost insert race; each is repeated once, and only recorded reviews fail again
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PeerScoreRollup.class)
+                    .upsert(upserts)
+                    .execute();
+            return reviews;
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+            BitSet held = new BitSet(reviews.size());
+            for (BulkWriteError error : e.getErrors()) {
+                Pair<Query, Update> upsert = upserts.get(error.getIndex());
+                try {
+                    mongoTemplate.upsert(upsert.getFirst(), upsert.getSecond(), PeerScoreRollup.class);
+                } catch (DuplicateKeyException duplicate) {
+                    // Already recorded
+                    held.set(error.getIndex());
+                }
+            }
+            List<PerformanceReview> recorded = new ArrayList<>(reviews.size() - held.cardinality());
+            for (int i = 0; i < reviews.size(); i++) {
+                if (!held.get(i)) {
+                    recorded.add(reviews.get(i));
+                }
+            }
+            return recorded;
+        }
+    }
+
+    @Override
+    public void applyScoreChanges(List<ScoreChange> changes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PeerScoreRollup.class);
+        int updates = 0;
+        for (ScoreChange change : changes) {
+            PerformanceReview review = change.review();
+            // Reviews without a department and role have no rollup
+            if (review.getEmployeeInfo() == null) {
+                continue;
+            }
+            bulk.updateOne(Query.query(Criteria.where("departmentId").is(review.getEmployeeInfo().getDepartmentId())
+                            .and("role").is(review.getEmployeeInfo().getRole())
+                            .and("employeeId").is(review.getEmployeeId())),
+                    new Update().inc("scoreSum", change.delta()));
+            updates++;
+        }
+        if (updates > 0) {
+            bulk.execute();
+        }
+    }
+
+    @Override
+    public void rebuildFromReviews() {
+        rebuild(List.of());
+    }
+
+    @Override
+    public void rebuildFromReviews(Collection<String> employeeIds) {
+        if (!employeeIds.isEmpty()) {
+            rebuild(List.of(new Document("$match", new Document("employeeId", new Document("$in", employeeIds)))));
+        }
+    }
+
+    private void rebuild(List<Document> match) {
+        List<Document> pipeline = new ArrayList<>(match);
+        pipeline.addAll(List.of(
+                new Document("$sort", new Document("reviewDate", 1).append("_id", 1)),
+                new Document("$group", new Document("_id", new Document("departmentId", "$employeeInfo.departmentId")
+                                .append("role", "$employeeInfo.role")
+                                .append("employeeId", "$employeeId"))
+                        .append("reviewCount", new Document("$sum", 1))
+                        .append("scoreSum", new Document("$sum", "$overallScore"))
+                        .append("latestReviewDate", new Document("$max", "$reviewDate"))
+                        // Markers for the reviews summed here, latest review dates last, so the
+                        // merge below replaces any left over from before the rebuild
+                        .append(APPLIED_REVIEW_IDS, new Document("$lastN", new Document("input", "$_id")
+                                .append("n", MAX_APPLIED_REVIEW_IDS)))),
+                new Document("$project", new Document("_id", 0)
+                        .append("departmentId", "$_id.departmentId")
+                        .append("role", "$_id.role")
+                        .append("employeeId", "$_id.employeeId")
+                        .append("reviewCount", 1)
+                        .append("scoreSum", 1)
+                        .append("latestReviewDate", 1)
+                        .append(APPLIED_REVIEW_IDS, 1)),
+                // Merged on the unique department_role_employee index rather than swapped in with
+                // $out; "merge" keeps each existing document's _id and rewrites the totals
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(PeerScoreRollup.class))
+                        .append("on", List.of("departmentId", "role", "employeeId"))
+                        .append("whenMatched", "merge")
+                        .append("whenNotMatched", "insert"))));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(PerformanceReview.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+}
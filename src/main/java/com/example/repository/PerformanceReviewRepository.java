@@ -1,55 +1,44 @@
 package com.example.repository;
 
 import com.example.model.PerformanceReview;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
-import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+// Read paths load only the fields their callers use, so the returned reviews are partial
+// and must never be saved back
 @Repository
-public interface PerformanceReviewRepository extends MongoRepository<PerformanceReview, String> {
-
-    List<PerformanceReview> findByEmployeeId(String employeeId);
-
-    @Query("{ 'employeeId': ?0, 'reviewDate': { $gte: ?1, $lte: ?2 } }")
-    List<PerformanceReview> findByEmployeeIdAndReviewDateBetween(
-            String employeeId, LocalDate startDate, LocalDate endDate);
-
-    @Aggregation(pipeline = {
-        "{ $match: { 'employeeInfo.departmentId': ?0, 'employeeInfo.role': ?1 } }",
-        "{ $group: { _id: '$employeeId', avgScore: { $avg: '$overallScore' } } }",
-        "{ $project: { _id: 0, id: '$_id', avgScore: 1 } }"
-    })
-    List<AggregationResult> getPeerAggregation(String departmentId, String role);
-
-    @Aggregation(pipeline = {
-        "{ $match: { 'employeeInfo.departmentId': ?0 } }",
-        "{ $sort: { 'reviewDate': -1 } }",
-        "{ $group: { _id: '$employeeId', avgScore: { $avg: '$overallScore' }, latestRole: { $first: '$employeeInfo.role' } } }",
-        "{ $project: { _id: 0, id: '$_id', avgScore: 1, latestRole: 1 } }"
-    })
-    List<DepartmentResult> getDepartmentAggregation(String departmentId);
-
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    class AggregationResult {
-        private String id;
-        private double avgScore;
-    }
-
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    class DepartmentResult {
-        private String id;
-        private double avgScore;
-        private String latestRole;
-    }
+public interface PerformanceReviewRepository extends MongoRepository<PerformanceReview, String>,
+        PerformanceReviewRepositoryCustom {
+
+    // What a report needs per review, plus the department the newest review was filed under
+    String REPORT_FIELDS = "{ 'reviewDate': 1, 'metrics': 1, 'comments': 1, 'overallScore': 1, 'employeeInfo.departmentId': 1 }";
+
+    // Everything the analytics index holds per review
+    String INDEX_FIELDS = "{ 'employeeId': 1, 'reviewDate': 1, 'overallScore': 1, 'employeeInfo': 1 }";
+
+    // What recording a review in the aggregates needs, plus its key
+    String AGGREGATE_FIELDS = "{ 'employeeId': 1, 'reviewDate': 1, 'overallScore': 1, 'employeeInfo': 1, 'idempotencyKey': 1 }";
+
+    // The review a duplicate submission collided with, to answer with its id and record it in
+    // case the attempt that stored it failed before doing so
+    @Query(value = "{ 'idempotencyKey': ?0 }", fields = AGGREGATE_FIELDS)
+    Optional<PerformanceReview> findByIdempotencyKey(String idempotencyKey);
+
+    // The same for a batch
+    @Query(value = "{ 'idempotencyKey': { '$in': ?0 } }", fields = AGGREGATE_FIELDS)
+    List<PerformanceReview> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
+    // Every review in the order it was stored; cursor-backed, callers must close the stream
+    @Query(value = "{}", fields = INDEX_FIELDS, sort = "{ '_id': 1 }")
+    Stream<PerformanceReview> streamScores();
+
+    // Cursor-backed; callers must close the stream
+    @Query(value = "{ 'employeeId': ?0 }", fields = REPORT_FIELDS, sort = "{ 'reviewDate': -1 }")
+    Stream<PerformanceReview> streamByEmployeeIdOrderByReviewDateDesc(String employeeId);
 }
@@ -0,0 +1,45 @@
+package com.example.repository;
+
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+
+import org.springframework.data.util.Pair;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface PerformanceReviewRepositoryCustom {
+
+    // Unordered bulk insert. Ids are assigned before the write so callers can map
+    // results (and bulk write errors, which report input indexes) back to their inputs.
+    int bulkInsert(List<PerformanceReview> reviews);
+
+    // Which of the given ids are stored
+    Set<String> findExistingIds(Collection<String> ids);
+
+    // Newest-first page of an employee's reviews strictly after the (beforeDate, beforeId)
+    // keyset position; a null position starts from the newest review
+    List<PerformanceReview> findReviewPage(String employeeId, LocalDate beforeDate, String beforeId, int limit);
+
+    // Dates and scores of an employee's reviews dated within any of the given inclusive
+    // (from, to) ranges
+    List<PerformanceReview> findScoresBetween(String employeeId, List<Pair<LocalDate, LocalDate>> ranges);
+
+    // Unordered bulk update of each review's overallScore, matched by id and the score it was
+    // read with, so a review re-scored by someone else meanwhile is left alone; returns how
+    // many documents changed
+    int updateOverallScores(List<ScoreChange> changes);
+
+    // First or last stored _id, to split the collection into ranges
+    Optional<String> findFirstId();
+
+    Optional<String> findLastId();
+
+    // Up to limit reviews in _id order with what re-scoring needs: metrics and score, and the
+    // employee, date, department and role that locate it in the aggregates. Starts after afterId, or at fromId when afterId is null, and stops before
+    // toId; null bounds are open
+    List<PerformanceReview> findScoringPage(String afterId, String fromId, String toId, int limit);
+}
@@ -0,0 +1,143 @@
+package com.example.repository;
+
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class PerformanceReviewRepositoryCustomImpl implements PerformanceReviewRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public PerformanceReviewRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int bulkInsert(List<PerformanceReview> reviews) {
+        if (reviews.isEmpty()) {
+            return 0;
+        }
+
+        for (PerformanceReview review : reviews) {
+            if (review.getId() == null) {
+                review.setId(new ObjectId().toHexString());
+            }
+        }
+
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PerformanceReview.class)
+                .insert(reviews)
+                .execute()
+                .getInsertedCount();
+    }
+
+    @Override
+    public int updateOverallScores(List<ScoreChange> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PerformanceReview.class);
+        for (ScoreChange change : changes) {
+            bulk.updateOne(Query.query(Criteria.where("id").is(change.review().getId())
+                            .and("overallScore").is(change.previousScore())),
+                    Update.update("overallScore", change.review().getOverallScore()));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public List<PerformanceReview> findReviewPage(String employeeId, LocalDate beforeDate, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("employeeId").is(employeeId);
+        if (beforeDate != null) {
+            // The reviewDate bound keeps the scan on the (employeeId, reviewDate, _id) index
+            criteria = criteria.and("reviewDate").lte(beforeDate).orOperator(
+                    Criteria.where("reviewDate").lt(beforeDate),
+                    Criteria.where("id").lt(beforeId));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "reviewDate", "id"))
+                .limit(limit);
+        // A page only shows these, and _id, which is always returned, becomes the next cursor
+        query.fields().include("reviewDate", "metrics", "comments", "overallScore");
+        return mongoTemplate.find(query, PerformanceReview.class);
+    }
+
+    @Override
+    public List<PerformanceReview> findScoresBetween(String employeeId, List<Pair<LocalDate, LocalDate>> ranges) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+
+        Criteria[] dated = ranges.stream()
+                .map(range -> Criteria.where("reviewDate").gte(range.getFirst()).lte(range.getSecond()))
+                .toArray(Criteria[]::new);
+        Query query = Query.query(Criteria.where("employeeId").is(employeeId).orOperator(dated));
+        query.fields().include("reviewDate", "overallScore");
+        return mongoTemplate.find(query, PerformanceReview.class);
+    }
+
+    @Override
+    public Optional<String> findFirstId() {
+        return findBoundaryId(Sort.Direction.ASC);
+    }
+
+    @Override
+    public Optional<String> findLastId() {
+        return findBoundaryId(Sort.Direction.DESC);
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+
+        Query query = Query.query(Criteria.where("id").in(ids));
+        query.fields().include("id");
+        return mongoTemplate.find(query, PerformanceReview.class).stream()
+                .map(PerformanceReview::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private Optional<String> findBoundaryId(Sort.Direction direction) {
+        Query query = new Query().with(Sort.by(direction, "id")).limit(1);
+        query.fields().include("id");
+        return Optional.ofNullable(mongoTemplate.findOne(query, PerformanceReview.class)).map(PerformanceReview::getId);
+    }
+
+    @Override
+    public List<PerformanceReview> findScoringPage(String afterId, String fromId, String toId, int limit) {
+        Criteria criteria = Criteria.where("id");
+        if (afterId != null) {
+            criteria = criteria.gt(afterId);
+        } else if (fromId != null) {
+            criteria = criteria.gte(fromId);
+        } else {
+            criteria = criteria.exists(true);
+        }
+        if (toId != null) {
+            criteria = criteria.lt(toId);
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit);
+        query.fields().include("employeeId", "reviewDate", "employeeInfo", "metrics", "overallScore");
+        return mongoTemplate.find(query, PerformanceReview.class);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.repository;
+
+import com.example.model.EmployeeScoreStats;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveEmployeeScoreStatsRepository extends ReactiveMongoRepository<EmployeeScoreStats, String> {
+}
@@ -0,0 +1,20 @@
+package com.example.repository;
+
+import com.example.model.PeerScoreRollup;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactivePeerScoreRollupRepository extends ReactiveMongoRepository<PeerScoreRollup, String> {
+
+    // Same pipeline as PeerScoreRollupRepository.getDepartmentAggregation
+    @Aggregation(pipeline = {
+        "{ $match: { 'departmentId': ?0 } }",
+        "{ $sort: { 'latestReviewDate': -1 } }",
+        "{ $group: { _id: '$employeeId', scoreSum: { $sum: '$scoreSum' }, reviewCount: { $sum: '$reviewCount' }, latestRole: { $first: '$role' } } }",
+        "{ $project: { _id: 0, id: '$_id', avgScore: { $divide: ['$scoreSum', '$reviewCount'] }, latestRole: 1 } }"
+    })
+    Flux<PeerScoreRollupRepository.DepartmentResult> getDepartmentAggregation(String departmentId);
+}
@@ -0,0 +1,16 @@
+package com.example.repository;
+
+import com.example.model.PerformanceReview;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+// Non-blocking reads for the /reactive report endpoints; writes stay on PerformanceReviewRepository
+@Repository
+public interface ReactivePerformanceReviewRepository extends ReactiveMongoRepository<PerformanceReview, String> {
+
+    // Documents are fetched from the cursor as downstream demand arrives
+    @Query(value = "{ 'employeeId': ?0 }", fields = PerformanceReviewRepository.REPORT_FIELDS, sort = "{ 'reviewDate': -1 }")
+    Flux<PerformanceReview> findByEmployeeIdOrderByReviewDateDesc(String employeeId);
+}
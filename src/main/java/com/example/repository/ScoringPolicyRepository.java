@@ -0,0 +1,9 @@
+package com.example.repository;
+
+import com.example.model.ScoringPolicy;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScoringPolicyRepository extends MongoRepository<ScoringPolicy, String> {
+}
@@ -0,0 +1,103 @@
+package com.example.service;
+
+import com.example.model.AggregateVersion;
+import com.example.repository.AggregateVersionRepository;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+// Startup rebuilds run as a lifecycle phase after the indexes and before AsyncReviewWriter,
+// the Kafka listener containers and the web server, so nothing on this instance records a
+// review while a rebuild is replacing aggregate documents
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AggregateRebuildService implements SmartLifecycle {
+
+    // Bump when the layout of a collection changes, so it is rebuilt once
+    static final String EMPLOYEE_STATS = "employee_score_stats";
+    static final int EMPLOYEE_STATS_VERSION = 1;
+    static final String PEER_ROLLUPS = "peer_score_rollups";
+    static final int PEER_ROLLUPS_VERSION = 1;
+
+    private final EmployeeScoreStatsRepository statsRepository;
+    private final PeerScoreRollupRepository rollupRepository;
+    private final AggregateVersionRepository versionRepository;
+    private final PeerRankIndex peerRankIndex;
+
+    private volatile boolean running;
+
+    @Value("${aggregates.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Override
+    public void start() {
+        if (rebuildOnStartup) {
+            rebuildIfMissing();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return IndexManagementService.PHASE + 1;
+    }
+
+    // Seeds the aggregates for reviews that were stored before they existed. Whether each was
+    // rebuilt is read from a persisted marker rather than guessed from what the collection holds
+    void rebuildIfMissing() {
+        if (!isCurrent(EMPLOYEE_STATS, EMPLOYEE_STATS_VERSION)) {
+            log.info("Employee score stats have not been rebuilt at version {}, rebuilding from performance reviews",
+                    EMPLOYEE_STATS_VERSION);
+            rebuildEmployeeStats();
+        }
+        if (!isCurrent(PEER_ROLLUPS, PEER_ROLLUPS_VERSION)) {
+            log.info("Peer score rollups have not been rebuilt at version {}, rebuilding from performance reviews",
+                    PEER_ROLLUPS_VERSION);
+            rebuildPeerRollups();
+        }
+    }
+
+    // Recomputes every derived aggregate, e.g. after they drift from a failed write
+    public void rebuildAll() {
+        rebuildEmployeeStats();
+        rebuildPeerRollups();
+    }
+
+    public void rebuildEmployeeStats() {
+        long start = System.currentTimeMillis();
+        statsRepository.rebuildFromReviews();
+        versionRepository.save(new AggregateVersion(EMPLOYEE_STATS, EMPLOYEE_STATS_VERSION, Instant.now()));
+        log.info("Rebuilt employee score stats in {} ms", System.currentTimeMillis() - start);
+    }
+
+    public void rebuildPeerRollups() {
+        long start = System.currentTimeMillis();
+        rollupRepository.rebuildFromReviews();
+        versionRepository.save(new AggregateVersion(PEER_ROLLUPS, PEER_ROLLUPS_VERSION, Instant.now()));
+        peerRankIndex.invalidateAll();
+        log.info("Rebuilt peer score rollups in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private boolean isCurrent(String aggregate, int version) {
+        return versionRepository.findById(aggregate)
+                .map(marker -> marker.getVersion() >= version)
+                .orElse(false);
+    }
+}
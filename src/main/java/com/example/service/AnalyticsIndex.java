@@ -0,0 +1,165 @@
+package com.example.service;
+
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.example.repository.PerformanceReviewRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Optional in-process copy of every review's score, loaded at startup and kept current from
+// the reviews this instance saves, that answers the analytics queries without MongoDB. Reviews
+// saved by other instances only show up after a reload
+@Slf4j
+@Component
+public class AnalyticsIndex {
+
+    // Reviews saved this long before a load started may or may not be read by it
+    private static final long LOAD_OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final PerformanceReviewRepository repository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int initialCapacity;
+    private final Object reloadLock = new Object();
+
+    private volatile ScoreColumns columns;
+    // Reviews saved and scores changed while a load is running, applied once it completes
+    private List<PerformanceReview> pending;
+    private List<ScoreChange> pendingScoreChanges;
+
+    public AnalyticsIndex(PerformanceReviewRepository repository,
+                          MeterRegistry meterRegistry,
+                          @Value("${reviews.analytics-index.enabled:false}") boolean enabled,
+                          @Value("${reviews.analytics-index.initial-capacity:100000}") int initialCapacity) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialCapacity = initialCapacity;
+    }
+
+    // Registered once constructed, so the registry never holds a half-built index
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("reviews.analytics.index.rows", this, index -> index.columns == null ? 0 : index.columns.size())
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Queries stay on MongoDB until a reload succeeds
+            log.error("Could not load the analytics index: {}", e.getMessage(), e);
+        }
+    }
+
+    // Builds a fresh copy from MongoDB; queries keep using the current one until it is ready
+    public void reload() {
+        if (!enabled) {
+            throw new IllegalStateException("Analytics index is disabled");
+        }
+        synchronized (reloadLock) {
+            load();
+        }
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            pending = new ArrayList<>();
+            pendingScoreChanges = new ArrayList<>();
+        }
+
+        ScoreColumns loaded = new ScoreColumns(initialCapacity);
+        Set<String> recentIds = new HashSet<>();
+        long recentSince = start - LOAD_OVERLAP_MILLIS;
+        try (Stream<PerformanceReview> reviews = repository.streamScores()) {
+            reviews.forEach(review -> {
+                loaded.append(review);
+                if (review.getId() != null && ObjectId.isValid(review.getId())
+                        && new ObjectId(review.getId()).getDate().getTime() >= recentSince) {
+                    recentIds.add(review.getId());
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+                pendingScoreChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            // Saved during the load but not read by it
+            for (PerformanceReview review : pending) {
+                if (!recentIds.contains(review.getId())) {
+                    loaded.append(review);
+                }
+            }
+            // A row the load already read with its new score no longer holds the previous one,
+            // so it is left alone
+            pendingScoreChanges.forEach(loaded::updateScore);
+            pending = null;
+            pendingScoreChanges = null;
+            columns = loaded;
+        }
+        log.info("Loaded {} reviews into the analytics index in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    // Called once the reviews are stored
+    public void recordReviews(List<PerformanceReview> reviews) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (columns != null) {
+                reviews.forEach(columns::append);
+            }
+            if (pending != null) {
+                pending.addAll(reviews);
+            }
+        }
+    }
+
+    // Called once re-scored reviews are written
+    public void recordScoreChanges(List<ScoreChange> changes) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (columns != null) {
+                changes.forEach(columns::updateScore);
+            }
+            if (pendingScoreChanges != null) {
+                pendingScoreChanges.addAll(changes);
+            }
+        }
+    }
+
+    // The loaded columns, or null while the index is disabled or not loaded yet
+    ScoreColumns columns() {
+        return columns;
+    }
+}
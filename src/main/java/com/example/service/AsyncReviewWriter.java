@@ -0,0 +1,232 @@
+package com.example.service;
+
+import com.example.dto.PerformanceReviewRequest;
+import com.example.dto.SubmissionResponse;
+import com.example.model.PerformanceReview;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind path for POST /reviews: reviews are validated and scored on the request thread,
+// given their id up front and parked in a bounded buffer that one writer drains in bulk inserts
+@Slf4j
+@Service
+public class AsyncReviewWriter implements SmartLifecycle {
+
+    public static final String ACCEPTED = "accepted";
+    public static final String REJECTED = "rejected";
+
+    private static final long POLL_MILLIS = 100;
+
+    public enum WhenFull { REJECT, BLOCK }
+
+    private final PerformanceReviewService performanceReviewService;
+    private final boolean enabled;
+    private final BlockingQueue<PerformanceReview> buffer;
+    private final int batchSize;
+    private final WhenFull whenFull;
+    private final Duration blockTimeout;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration shutdownTimeout;
+    private final Counter rejected;
+    private final Counter dropped;
+    // Idempotency key to review id for buffered reviews, so a repeated submission gets the id
+    // of the review that will be stored rather than one of its own that never will
+    private final Map<String, String> bufferedKeys = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AsyncReviewWriter(PerformanceReviewService performanceReviewService,
+                             MeterRegistry meterRegistry,
+                             @Value("${reviews.async.enabled:false}") boolean enabled,
+                             @Value("${reviews.async.capacity:10000}") int capacity,
+                             @Value("${reviews.async.batch-size:500}") int batchSize,
+                             @Value("${reviews.async.when-full:reject}") String whenFull,
+                             @Value("${reviews.async.block-timeout:5s}") Duration blockTimeout,
+                             @Value("${reviews.async.max-retries:3}") int maxRetries,
+                             @Value("${reviews.async.retry-backoff:1s}") Duration retryBackoff,
+                             @Value("${reviews.async.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.performanceReviewService = performanceReviewService;
+        this.enabled = enabled;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.whenFull = WhenFull.valueOf(whenFull.trim().toUpperCase(Locale.ROOT));
+        this.blockTimeout = blockTimeout;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("reviews.async.queue.depth", buffer, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("reviews.async.queue.capacity", () -> capacity).register(meterRegistry);
+        this.rejected = meterRegistry.counter("reviews.async.rejected");
+        this.dropped = meterRegistry.counter("reviews.async.dropped");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Accepted reviews are readable once the writer has flushed them, usually within milliseconds
+    public SubmissionResponse submit(PerformanceReviewRequest request) {
+        PerformanceReview review = performanceReviewService.createReview(request);
+        String duplicateId = performanceReviewService.recentDuplicateOf(review);
+        if (duplicateId != null) {
+            return new SubmissionResponse(duplicateId, SubmissionResponse.DUPLICATE);
+        }
+        review.setId(new ObjectId().toHexString());
+        String key = review.getIdempotencyKey();
+        if (key != null) {
+            String bufferedId = bufferedKeys.putIfAbsent(key, review.getId());
+            if (bufferedId != null) {
+                return new SubmissionResponse(bufferedId, SubmissionResponse.DUPLICATE);
+            }
+        }
+
+        if (!enqueue(review)) {
+            release(key, review.getId());
+            rejected.increment();
+            return new SubmissionResponse(null, REJECTED);
+        }
+        return new SubmissionResponse(review.getId(), ACCEPTED);
+    }
+
+    // Once written, or dropped, a review's key is answered by recentDuplicateOf or the index
+    private void release(String key, String bufferedId) {
+        if (key != null) {
+            bufferedKeys.remove(key, bufferedId);
+        }
+    }
+
+    private boolean enqueue(PerformanceReview review) {
+        if (!running) {
+            return false;
+        }
+        if (whenFull == WhenFull.REJECT) {
+            return buffer.offer(review);
+        }
+        try {
+            return buffer.offer(review, blockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "async-review-writer");
+        writer.start();
+    }
+
+    // Stops taking reviews, then waits for the writer to flush what is already buffered
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.error("Shut down with {} buffered reviews not written", buffer.size());
+            dropped.increment(buffer.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    // Stops after the web server, so no request can enqueue once the final flush has begun
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                PerformanceReview first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PerformanceReview> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                // Taken before the write, which gives duplicates the id of the review they duplicate
+                List<String> bufferedIds = batch.stream().map(PerformanceReview::getId).toList();
+                try {
+                    write(batch);
+                } finally {
+                    for (int i = 0; i < batch.size(); i++) {
+                        release(batch.get(i).getIdempotencyKey(), bufferedIds.get(i));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<PerformanceReview> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                performanceReviewService.saveReviews(batch);
+                return;
+            } catch (BulkOperationException e) {
+                // Duplicates are already stored: by an earlier attempt that got through, which
+                // saveReviews has now recorded in the aggregates, or under the same idempotency key
+                long lost = e.getErrors().stream()
+                        .filter(error -> !PerformanceReviewService.isDuplicate(error))
+                        .count();
+                if (lost > 0) {
+                    log.error("{} of {} buffered reviews were rejected by MongoDB: {}", lost, batch.size(),
+                            e.getErrors().stream().map(BulkWriteError::getMessage).findFirst().orElse(""));
+                    dropped.increment(lost);
+                }
+                return;
+            } catch (Exception e) {
+                if (attempt > maxRetries) {
+                    log.error("Dropping {} buffered reviews after {} attempts: {}", batch.size(), attempt, e.getMessage(), e);
+                    dropped.increment(batch.size());
+                    return;
+                }
+                log.warn("Writing {} buffered reviews failed, retrying: {}", batch.size(), e.getMessage());
+                Thread.sleep(retryBackoff.toMillis() * attempt);
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.service;
+
+import com.example.model.BackfillCheckpoint;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.example.repository.BackfillCheckpointRepository;
+import com.example.repository.PerformanceReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Re-scores every stored review under its department's current weights. The collection is
+// split into _id ranges worked on concurrently by virtual threads, each paging through its
+// range in _id order and writing changed scores with bulk updates, moving the aggregates by
+// each page's changes as it goes. Progress is checkpointed after every page, so a stopped,
+// failed or interrupted job resumes where it left off
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BackfillService {
+
+    public static final String RESCORE_JOB = "rescore";
+
+    private final PerformanceReviewRepository reviewRepository;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final ScoringPolicies scoringPolicies;
+    private final RescoreService rescoreService;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile boolean stopRequested;
+
+    // Ranges the collection is split into; more ranges than workers evens out uneven ranges
+    @Value("${backfill.ranges:16}")
+    private int rangeCount;
+
+    @Value("${backfill.parallelism:4}")
+    private int parallelism;
+
+    @Value("${backfill.batch-size:1000}")
+    private int batchSize;
+
+    // Combined rate across workers, so live traffic keeps most of MongoDB; 0 is unthrottled
+    @Value("${backfill.max-reviews-per-second:2000}")
+    private int maxReviewsPerSecond;
+
+    public Optional<BackfillCheckpoint> findRescore() {
+        return checkpointRepository.findById(RESCORE_JOB);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // Resumes an unfinished job, or plans a new one once the last has completed, and runs it
+    // in the background. Throws IllegalStateException while a job is running on this instance
+    public BackfillCheckpoint startRescore() {
+        return start(() -> checkpointRepository.findById(RESCORE_JOB)
+                .filter(existing -> !BackfillCheckpoint.COMPLETED.equals(existing.getStatus()))
+                .orElseGet(() -> plan(null)));
+    }
+
+    // Plans a new job even if one is unfinished, since the ranges it finished were scored under
+    // weights that have since changed, and runs it once notBefore has passed
+    public BackfillCheckpoint restartRescore(Instant notBefore) {
+        return start(() -> plan(notBefore));
+    }
+
+    private BackfillCheckpoint start(Supplier<BackfillCheckpoint> checkpoints) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A backfill is already running");
+        }
+        try {
+            BackfillCheckpoint checkpoint = checkpoints.get();
+            checkpoint.setStatus(BackfillCheckpoint.RUNNING);
+            checkpoint.setError(null);
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+            stopRequested = false;
+            Thread.ofVirtual().name("backfill-" + RESCORE_JOB).start(() -> {
+                try {
+                    run(checkpoint);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return checkpoint;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    // Workers finish their current page and checkpoint it; returns false if nothing was running
+    public boolean stop() {
+        if (!running.get()) {
+            return false;
+        }
+        stopRequested = true;
+        return true;
+    }
+
+    private BackfillCheckpoint plan(Instant notBefore) {
+        List<BackfillCheckpoint.Range> ranges = split(
+                reviewRepository.findFirstId().orElse(null), reviewRepository.findLastId().orElse(null), rangeCount);
+        Instant now = Instant.now();
+        return new BackfillCheckpoint(RESCORE_JOB, BackfillCheckpoint.RUNNING, ranges, now, now, null, notBefore);
+    }
+
+    // Splits [firstId, lastId] into count ranges of equal ObjectId time spans. The outer ends
+    // stay open, so reviews stored while the job runs are covered as well
+    static List<BackfillCheckpoint.Range> split(String firstId, String lastId, int count) {
+        List<BackfillCheckpoint.Range> ranges = new ArrayList<>();
+        if (firstId == null) {
+            return ranges;
+        }
+        if (count <= 1 || !ObjectId.isValid(firstId) || !ObjectId.isValid(lastId)) {
+            ranges.add(new BackfillCheckpoint.Range(null, null));
+            return ranges;
+        }
+        long from = Integer.toUnsignedLong(new ObjectId(firstId).getTimestamp());
+        long to = Integer.toUnsignedLong(new ObjectId(lastId).getTimestamp()) + 1;
+        long step = Math.max(1, (to - from + count - 1) / count);
+        String lower = null;
+        for (long seconds = from + step; seconds < to; seconds += step) {
+            // The smallest ObjectId created in that second
+            String boundary = String.format("%08x%016x", seconds, 0);
+            ranges.add(new BackfillCheckpoint.Range(lower, boundary));
+            lower = boundary;
+        }
+        ranges.add(new BackfillCheckpoint.Range(lower, null));
+        return ranges;
+    }
+
+    void run(BackfillCheckpoint checkpoint) {
+        long start = System.currentTimeMillis();
+        Throttle throttle = new Throttle(maxReviewsPerSecond);
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> workers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            awaitNotBefore(checkpoint.getNotBefore());
+            List<BackfillCheckpoint.Range> ranges = checkpoint.getRanges();
+            for (int i = 0; i < ranges.size(); i++) {
+                BackfillCheckpoint.Range range = ranges.get(i);
+                if (range.isDone()) {
+                    continue;
+                }
+                permits.acquire();
+                if (stopRequested || failure.get() != null) {
+                    permits.release();
+                    break;
+                }
+                int index = i;
+                workers.add(executor.submit(() -> {
+                    try {
+                        processRange(index, range, throttle, failure);
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        }
+
+        long updated = 0;
+        long processed = 0;
+        boolean done = true;
+        for (BackfillCheckpoint.Range range : checkpoint.getRanges()) {
+            updated += range.getUpdated();
+            processed += range.getProcessed();
+            done &= range.isDone();
+        }
+        Throwable error = failure.get();
+        if (error != null) {
+            log.error("Backfill {} failed after {} reviews: {}", checkpoint.getJob(), processed, error.getMessage(), error);
+            checkpoint.setStatus(BackfillCheckpoint.FAILED);
+            checkpoint.setError(error.getMessage());
+        } else if (done) {
+            if (updated > 0) {
+                rescoreService.reloadScores();
+            }
+            checkpoint.setStatus(BackfillCheckpoint.COMPLETED);
+        } else {
+            checkpoint.setStatus(BackfillCheckpoint.STOPPED);
+        }
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        log.info("Backfill {} {} after {} reviews ({} updated) in {} ms", checkpoint.getJob(), checkpoint.getStatus(),
+                processed, updated, System.currentTimeMillis() - start);
+    }
+
+    // Sleeps in short steps so a stop request is noticed while waiting
+    private void awaitNotBefore(Instant notBefore) throws InterruptedException {
+        if (notBefore == null) {
+            return;
+        }
+        long wait;
+        while (!stopRequested && (wait = Duration.between(Instant.now(), notBefore).toMillis()) > 0) {
+            Thread.sleep(Math.min(wait, 1000));
+        }
+    }
+
+    // A page is written before it is checkpointed, so a resumed range may repeat the last
+    // page; re-scoring it again changes nothing. An instance lost between writing a page's
+    // scores and moving the aggregates leaves them short until they are rebuilt
+    private void processRange(int index, BackfillCheckpoint.Range range, Throttle throttle,
+                              AtomicReference<Throwable> failure) throws InterruptedException {
+        while (!stopRequested && failure.get() == null) {
+            List<PerformanceReview> page = reviewRepository.findScoringPage(
+                    range.getLastId(), range.getFromId(), range.getToId(), batchSize);
+            if (!page.isEmpty()) {
+                throttle.acquire(page.size());
+                List<ScoreChange> changed = new ArrayList<>(page.size());
+                int skipped = RescoreService.rescore(page, review -> scoringPolicies.forDepartment(
+                        review.getEmployeeInfo() == null ? null : review.getEmployeeInfo().getDepartmentId()), changed);
+                range.setUpdated(range.getUpdated() + rescoreService.applyScoreChanges(changed));
+                range.setSkipped(range.getSkipped() + skipped);
+                range.setProcessed(range.getProcessed() + page.size());
+                range.setLastId(page.get(page.size() - 1).getId());
+            }
+            range.setDone(page.size() < batchSize);
+            checkpointRepository.saveRange(RESCORE_JOB, index, range);
+            if (range.isDone()) {
+                return;
+            }
+        }
+    }
+}
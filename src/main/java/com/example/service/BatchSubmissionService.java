@@ -0,0 +1,152 @@
+package com.example.service;
+
+import com.example.dto.BatchItemResult;
+import com.example.dto.PerformanceReviewRequest;
+import com.example.model.PerformanceReview;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchSubmissionService {
+
+    private final PerformanceReviewService performanceReviewService;
+    private final ObjectMapper objectMapper;
+
+    // Reviews held in memory and written per bulk insert while the body is streamed
+    @Value("${reviews.batch.chunk-size:500}")
+    private int chunkSize;
+
+    // Reads a JSON array or NDJSON stream one item at a time, writing accepted reviews in
+    // chunks and emitting one result per item, in input order, as each chunk completes
+    public void submit(InputStream body, Consumer<BatchItemResult> results) throws IOException {
+        Chunk chunk = new Chunk(chunkSize);
+        int index = 0;
+
+        // A top-level array is unwrapped, otherwise whitespace-separated values are read in turn
+        try (MappingIterator<PerformanceReviewRequest> requests =
+                     objectMapper.readerFor(PerformanceReviewRequest.class).readValues(body)) {
+            while (requests.hasNextValue()) {
+                BatchItemResult result = new BatchItemResult(index++, null, null, null);
+                chunk.results().add(result);
+                try {
+                    PerformanceReview review = performanceReviewService.createReview(requests.nextValue());
+                    String duplicateId = performanceReviewService.recentDuplicateOf(review);
+                    if (duplicateId != null) {
+                        result.setReviewId(duplicateId);
+                        result.setStatus(BatchItemResult.DUPLICATE);
+                    } else {
+                        chunk.reviews().add(review);
+                        chunk.accepted().add(result);
+                    }
+                } catch (JsonParseException e) {
+                    // Malformed input cannot be resynchronised, so nothing after it is read
+                    reject(result, e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    reject(result, e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    reject(result, e.getMessage());
+                }
+
+                if (chunk.results().size() >= chunkSize) {
+                    flush(chunk, results);
+                    chunk = new Chunk(chunkSize);
+                }
+            }
+        } catch (JsonParseException e) {
+            // Malformed input between items, e.g. a truncated array
+            chunk.results().add(new BatchItemResult(index, null, BatchItemResult.REJECTED, e.getOriginalMessage()));
+        }
+        flush(chunk, results);
+    }
+
+    private void flush(Chunk chunk, Consumer<BatchItemResult> results) {
+        if (!chunk.reviews().isEmpty()) {
+            save(chunk.reviews(), chunk.accepted());
+        }
+        chunk.results().forEach(results);
+    }
+
+    private void save(List<PerformanceReview> reviews, List<BatchItemResult> accepted) {
+        Map<Integer, String> failures = new HashMap<>();
+        Set<Integer> duplicates = new HashSet<>();
+        try {
+            List<PerformanceReview> inserted = performanceReviewService.saveReviews(reviews);
+            if (inserted.size() < reviews.size()) {
+                // Every write that did not go in hit a stored idempotency key
+                Set<PerformanceReview> stored = Collections.newSetFromMap(new IdentityHashMap<>());
+                stored.addAll(inserted);
+                for (int i = 0; i < reviews.size(); i++) {
+                    if (!stored.contains(reviews.get(i))) {
+                        duplicates.add(i);
+                    }
+                }
+            }
+        } catch (BulkOperationException e) {
+            // Unordered insert: only the reported writes failed, the rest of the chunk is stored
+            for (BulkWriteError error : e.getErrors()) {
+                if (PerformanceReviewService.isDuplicate(error)) {
+                    duplicates.add(error.getIndex());
+                } else {
+                    failures.put(error.getIndex(), error.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error saving chunk of {} reviews from batch submission: {}", reviews.size(), e.getMessage(), e);
+            for (int i = 0; i < reviews.size(); i++) {
+                failures.put(i, e.getMessage());
+            }
+        }
+
+        for (int i = 0; i < reviews.size(); i++) {
+            BatchItemResult result = accepted.get(i);
+            String failure = failures.get(i);
+            if (duplicates.contains(i)) {
+                // saveReviews gave it the id of the review it duplicates
+                result.setReviewId(reviews.get(i).getId());
+                result.setStatus(BatchItemResult.DUPLICATE);
+            } else if (failure != null) {
+                result.setStatus(BatchItemResult.FAILED);
+                result.setError(failure);
+            } else {
+                result.setReviewId(reviews.get(i).getId());
+                result.setStatus(BatchItemResult.SUBMITTED);
+            }
+        }
+    }
+
+    private void reject(BatchItemResult result, String error) {
+        result.setStatus(BatchItemResult.REJECTED);
+        result.setError(error);
+    }
+
+    // Reviews to write together, the results of those reviews, and every result in input order
+    private record Chunk(List<PerformanceReview> reviews, List<BatchItemResult> accepted,
+                         List<BatchItemResult> results) {
+        Chunk(int size) {
+            this(new ArrayList<>(size), new ArrayList<>(size), new ArrayList<>(size));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterReplayService {
+
+    // Replay progress is committed under its own group, so each record is replayed once
+    private static final String REPLAY_GROUP = "performance-review-dlt-replay";
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaOperations<String, Object> reviewKafkaTemplate;
+    private final ReviewRetryRouter retryRouter;
+
+    @Value("${kafka.topic.performance-reviews}")
+    private String topic;
+
+    // How long to wait for more dead letters before concluding the topic is drained
+    @Value("${kafka.dlt.replay.poll-timeout:5s}")
+    private Duration pollTimeout;
+
+    // Republishes up to maxRecords dead letters to the main topic, oldest first, without their
+    // failure headers; records that fail again are routed through the retry topics as usual
+    public int replay(int maxRecords) throws InterruptedException, ExecutionException {
+        int replayed = 0;
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(REPLAY_GROUP, null)) {
+            consumer.subscribe(List.of(retryRouter.getDeadLetterTopic()));
+            while (replayed < maxRecords) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(pollTimeout);
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (replayed == maxRecords) {
+                        break;
+                    }
+                    reviewKafkaTemplate.send(new ProducerRecord<>(topic, null, record.key(), record.value(),
+                            replayHeaders(record))).get();
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                // Anything polled past maxRecords is left uncommitted for the next replay
+                consumer.commitSync(offsets);
+            }
+        }
+        log.info("Replayed {} dead-lettered performance reviews to {}", replayed, topic);
+        return replayed;
+    }
+
+    private static RecordHeaders replayHeaders(ConsumerRecord<String, byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith("kafka_dlt-")
+                    && !header.key().equals(ReviewRetryRouter.ATTEMPT_HEADER)
+                    && !header.key().equals(ReviewRetryRouter.DUE_AT_HEADER)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+}
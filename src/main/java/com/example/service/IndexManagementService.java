@@ -0,0 +1,76 @@
+package com.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Creates the indexes declared on @Document classes; auto-index-creation stays off so
+// index builds happen at a known point rather than lazily on first use. Startup runs as an
+// early lifecycle phase, so the unique indexes exist before Kafka listeners or HTTP can write
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexManagementService implements SmartLifecycle {
+
+    // Ahead of AsyncReviewWriter, the Kafka listener containers and the web server
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    private volatile boolean running;
+
+    @Value("${mongo.indexes.ensure-on-startup:true}")
+    private boolean ensureOnStartup;
+
+    @Override
+    public void start() {
+        if (ensureOnStartup) {
+            ensureIndexes();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // Returns "collection.index" names; ensureIndex is a no-op for indexes that already exist
+    public List<String> ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<String> ensured = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            resolver.resolveIndexFor(entity.getTypeInformation()).forEach(index ->
+                    ensured.add(entity.getCollection() + "." + indexOps.ensureIndex(index)));
+        }
+        log.info("Ensured MongoDB indexes: {}", ensured);
+        return ensured;
+    }
+}
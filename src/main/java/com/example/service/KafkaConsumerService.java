@@ -1,15 +1,35 @@
 package com.example.service;
 
 import com.example.dto.PerformanceReviewRequest;
+import com.example.model.PerformanceReview;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -17,29 +37,264 @@ public class KafkaConsumerService {
 
     private final PerformanceReviewService performanceReviewService;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ReviewRetryRouter retryRouter;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    // Number of employee-keyed lanes a batch is split into and written concurrently on
+    // virtual threads; 0 or 1 writes the whole batch from the listener thread
+    @Value("${kafka.consumer.worker-lanes:0}")
+    private int workerLanes;
 
     @KafkaListener(
         topics = "${kafka.topic.performance-reviews}",
         groupId = "performance-review-group",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "kafkaListenerContainerFactory",
+        autoStartup = "#{!${kafka.consumer.batch-enabled:true}}"
     )
     public void consumePerformanceReview(
-            @Payload String message,
+            @Payload byte[] message,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset) {
-        
-        log.info("Received message from Kafka - Topic: {}, Partition: {}, Offset: {}", 
+            @Header(KafkaHeaders.OFFSET) long offset,
+            @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+
+        log.debug("Received message from Kafka - Topic: {}, Partition: {}, Offset: {}",
                 topic, partition, offset);
-        
+
+        String stage = "deserialize";
         try {
-            PerformanceReviewRequest review = objectMapper.readValue(message, PerformanceReviewRequest.class);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            PerformanceReviewRequest review = readRequest(message);
+            if (review.getIdempotencyKey() == null) {
+                review.setIdempotencyKey(topic + "-" + partition + "@" + offset + ":" + timestamp);
+            }
+            sample.stop(stageTimer(stage));
+
+            stage = "save";
+            sample = Timer.start(meterRegistry);
             performanceReviewService.submitReview(review);
-            log.info("Successfully processed performance review from Kafka");
+            sample.stop(stageTimer(stage));
+            log.debug("Successfully processed performance review from Kafka");
         } catch (Exception e) {
+            countFailure(stage);
             log.error("Error processing performance review from Kafka: {}", e.getMessage(), e);
-            // The message will be retried by Kafka since we have disabled auto-commit
+            // The container's error handler hands the record to ReviewRetryRouter
             throw new RuntimeException("Error processing performance review", e);
         }
     }
+
+    // Records whose save failed, republished by ReviewRetryRouter, on one container per retry
+    // topic (RetryListenerConfig). A record that is not due yet is nacked: its container
+    // pauses until then and redelivers it, so nothing blocks and the main topic never waits
+    public void consumeRetry(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) throws Exception {
+        long wait = retryRouter.dueAt(record) - System.currentTimeMillis();
+        if (wait > 0) {
+            acknowledgment.nack(Duration.ofMillis(wait));
+            return;
+        }
+        log.debug("Retrying performance review from Kafka - Topic: {}, Partition: {}, Offset: {}",
+                record.topic(), record.partition(), record.offset());
+
+        // Failures propagate to the retry container's error handler, which routes the
+        // record to the next retry topic or the dead-letter topic
+        PerformanceReviewRequest request = readRequest(record.value());
+        if (request.getIdempotencyKey() == null) {
+            request.setIdempotencyKey(ReviewRetryRouter.sourceKey(record));
+        }
+        performanceReviewService.submitReview(request);
+        acknowledgment.acknowledge();
+    }
+
+    @KafkaListener(
+        topics = "${kafka.topic.performance-reviews}",
+        groupId = "performance-review-group",
+        containerFactory = "kafkaListenerContainerFactory",
+        batch = "true",
+        autoStartup = "${kafka.consumer.batch-enabled:true}"
+    )
+    public void consumePerformanceReviewBatch(List<ConsumerRecord<String, byte[]>> records) {
+        log.debug("Received batch of {} messages from Kafka", records.size());
+        meterRegistry.summary("reviews.kafka.batch.size").record(records.size());
+
+        // Deserialize and validate every record first; a record that can never succeed is
+        // dead-lettered instead of failing (and replaying) the whole batch
+        List<PerformanceReview> reviews = new ArrayList<>(records.size());
+        int[] recordIndexes = new int[records.size()];
+        List<Invalid> invalid = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            String stage = "deserialize";
+            try {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                if (record.value() == null) {
+                    throw new IllegalArgumentException("Empty or undeserializable message");
+                }
+                PerformanceReviewRequest request = readRequest(record.value());
+                if (request.getIdempotencyKey() == null) {
+                    request.setIdempotencyKey(ReviewRetryRouter.sourceKey(record));
+                }
+                sample.stop(stageTimer(stage));
+
+                stage = "validate";
+                sample = Timer.start(meterRegistry);
+                PerformanceReview review = performanceReviewService.createReview(request);
+                sample.stop(stageTimer(stage));
+                // A redelivered record this instance already stored never reaches Mongo
+                if (performanceReviewService.recentDuplicateOf(review) == null) {
+                    recordIndexes[reviews.size()] = i;
+                    reviews.add(review);
+                }
+            } catch (Exception e) {
+                countFailure(stage);
+                invalid.add(new Invalid(i, e));
+            }
+        }
+
+        List<Lane> lanes = partitionByEmployee(reviews, recordIndexes);
+        Timer.Sample saveSample = Timer.start(meterRegistry);
+        try {
+            if (lanes.size() == 1) {
+                saveLane(lanes.get(0));
+            } else {
+                saveLanesConcurrently(lanes);
+            }
+        } catch (BatchListenerFailedException e) {
+            countFailure("save");
+            // Records from the failed one onwards are redelivered and validated again
+            deadLetter(records, invalid, e.getIndex());
+            throw e;
+        } finally {
+            saveSample.stop(stageTimer("save"));
+        }
+        deadLetter(records, invalid, records.size());
+
+        log.debug("Successfully processed {} of {} performance reviews from Kafka batch",
+                reviews.size(), records.size());
+    }
+
+    // Dead-letters the invalid records before index, once the save has shown which records
+    // will not be redelivered
+    private void deadLetter(List<ConsumerRecord<String, byte[]>> records, List<Invalid> invalid, int before) {
+        for (Invalid entry : invalid) {
+            if (entry.index() >= before) {
+                return;
+            }
+            ConsumerRecord<String, byte[]> record = records.get(entry.index());
+            log.error("Dead-lettering invalid performance review from Kafka - Topic: {}, Partition: {}, Offset: {}: {}",
+                    record.topic(), record.partition(), record.offset(), entry.exception().getMessage());
+            retryRouter.accept(record, entry.exception());
+        }
+    }
+
+    // Reviews for the same employee always land in the same lane, in record order,
+    // so per-employee ordering survives concurrent writes
+    private List<Lane> partitionByEmployee(List<PerformanceReview> reviews, int[] recordIndexes) {
+        int laneCount = Math.min(workerLanes, reviews.size());
+        if (laneCount <= 1) {
+            return List.of(new Lane(reviews, recordIndexes));
+        }
+
+        // Sized up front, so no lane grows or boxes its record indexes
+        int[] laneOf = new int[reviews.size()];
+        int[] laneSizes = new int[laneCount];
+        for (int i = 0; i < reviews.size(); i++) {
+            laneOf[i] = Math.floorMod(reviews.get(i).getEmployeeId().hashCode(), laneCount);
+            laneSizes[laneOf[i]]++;
+        }
+        Lane[] byIndex = new Lane[laneCount];
+        List<Lane> lanes = new ArrayList<>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            if (laneSizes[lane] > 0) {
+                byIndex[lane] = new Lane(new ArrayList<>(laneSizes[lane]), new int[laneSizes[lane]]);
+                lanes.add(byIndex[lane]);
+            }
+        }
+        for (int i = 0; i < reviews.size(); i++) {
+            Lane lane = byIndex[laneOf[i]];
+            lane.recordIndexes()[lane.reviews().size()] = recordIndexes[i];
+            lane.reviews().add(reviews.get(i));
+        }
+        return lanes;
+    }
+
+    private void saveLanesConcurrently(List<Lane> lanes) {
+        BatchListenerFailedException firstFailure = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(lanes.size());
+            for (Lane lane : lanes) {
+                futures.add(executor.submit(() -> saveLane(lane)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    BatchListenerFailedException failure = e.getCause() instanceof BatchListenerFailedException batchFailure
+                            ? batchFailure
+                            : new BatchListenerFailedException("Error saving performance review batch", e.getCause(),
+                                    lanes.get(i).recordIndexes()[0]);
+                    if (firstFailure == null || failure.getIndex() < firstFailure.getIndex()) {
+                        firstFailure = failure;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BatchListenerFailedException("Interrupted while saving performance review batch", e,
+                            lanes.get(i).recordIndexes()[0]);
+                }
+            }
+        }
+
+        // Redeliver from the earliest failed record across all lanes
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    private void saveLane(Lane lane) {
+        try {
+            performanceReviewService.saveReviews(lane.reviews());
+        } catch (BulkOperationException e) {
+            // Unordered insert: every write but the failed ones is persisted, including those
+            // after the first failure. Offsets commit up to that record and the error handler
+            // redelivers from there, so stored records after it come round again; that is safe
+            // only because they hit their idempotency keys and are answered as duplicates.
+            // Duplicates were stored by an earlier delivery and are not failures
+            int failedIndex = e.getErrors().stream()
+                    .filter(error -> !PerformanceReviewService.isDuplicate(error))
+                    .mapToInt(BulkWriteError::getIndex)
+                    .min()
+                    .orElse(0);
+            throw new BatchListenerFailedException("Error saving performance review batch", e,
+                    lane.recordIndexes()[failedIndex]);
+        } catch (Exception e) {
+            int firstIndex = lane.reviews().isEmpty() ? 0 : lane.recordIndexes()[0];
+            throw new BatchListenerFailedException("Error saving performance review batch", e, firstIndex);
+        }
+    }
+
+    // Binary messages are decoded by ReviewWireFormat and anything else is parsed as JSON,
+    // both straight from the record's bytes
+    private PerformanceReviewRequest readRequest(byte[] message) throws IOException {
+        if (ReviewWireFormat.isBinary(message)) {
+            return ReviewWireFormat.decode(message);
+        }
+        return objectMapper.readValue(message, PerformanceReviewRequest.class);
+    }
+
+    // Looked up once per stage rather than once per record
+    private Timer stageTimer(String stage) {
+        return stageTimers.computeIfAbsent(stage, name -> meterRegistry.timer("reviews.kafka.ingest", "stage", name));
+    }
+
+    private void countFailure(String stage) {
+        meterRegistry.counter("reviews.kafka.failures", "stage", stage).increment();
+    }
+
+    // recordIndexes[i] is the batch position of reviews.get(i)
+    private record Lane(List<PerformanceReview> reviews, int[] recordIndexes) {
+    }
+
+    // A record that failed deserialization or validation, by batch position
+    private record Invalid(int index, Exception exception) {
+    }
 }
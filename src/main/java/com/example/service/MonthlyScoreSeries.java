@@ -0,0 +1,49 @@
+package com.example.service;
+
+import com.example.model.EmployeeScoreStats;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+// Prefix sums over a run of consecutive monthly buckets, so the average of any window
+// inside the run costs two lookups however many months it spans
+class MonthlyScoreSeries {
+
+    private final YearMonth first;
+    // Totals of every month before first + i
+    private final double[] sums;
+    private final long[] counts;
+
+    MonthlyScoreSeries(Map<String, EmployeeScoreStats.ScoreBucket> buckets, YearMonth first, YearMonth last) {
+        int length = (int) first.until(last, ChronoUnit.MONTHS) + 1;
+        this.first = first;
+        this.sums = new double[length + 1];
+        this.counts = new long[length + 1];
+
+        YearMonth month = first;
+        for (int i = 0; i < length; i++, month = month.plusMonths(1)) {
+            EmployeeScoreStats.ScoreBucket bucket = buckets.get(month.toString());
+            sums[i + 1] = sums[i] + (bucket == null ? 0 : bucket.getSum());
+            counts[i + 1] = counts[i] + (bucket == null ? 0 : bucket.getCount());
+        }
+    }
+
+    long count(YearMonth from, YearMonth to) {
+        return counts[offset(to) + 1] - counts[offset(from)];
+    }
+
+    // Average of the reviews in [from, to], or null when there are none
+    Double average(YearMonth from, YearMonth to) {
+        long count = count(from, to);
+        return count == 0 ? null : (sums[offset(to) + 1] - sums[offset(from)]) / count;
+    }
+
+    private int offset(YearMonth month) {
+        int offset = (int) first.until(month, ChronoUnit.MONTHS);
+        if (offset < 0 || offset >= counts.length - 1) {
+            throw new IllegalArgumentException("Month " + month + " is outside the series");
+        }
+        return offset;
+    }
+}
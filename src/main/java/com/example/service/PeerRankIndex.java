@@ -0,0 +1,92 @@
+package com.example.service;
+
+import com.example.model.PeerScoreRollup;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.example.repository.PeerScoreRollupRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+// Per-(department, role) rankings behind peer comparisons. A cohort is loaded from its rollups
+// on first use, kept current from saved reviews, and reloaded after the refresh interval so
+// writes made by other instances are picked up
+@Component
+public class PeerRankIndex {
+
+    private final PeerScoreRollupRepository rollupRepository;
+    private final AsyncLoadingCache<Cohort, PeerScoreRanking> rankings;
+
+    public PeerRankIndex(PeerScoreRollupRepository rollupRepository,
+                         @Value("${reviews.peer-rank.max-cohorts:1000}") long maxCohorts,
+                         @Value("${reviews.peer-rank.refresh-interval:1m}") Duration refreshInterval) {
+        this.rollupRepository = rollupRepository;
+        this.rankings = Caffeine.newBuilder()
+                .maximumSize(maxCohorts)
+                .expireAfterWrite(refreshInterval)
+                // Loaded on a virtual thread of its own, so concurrent callers wait on the future
+                // rather than on a map lock held across the Mongo query
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .buildAsync(this::load);
+    }
+
+    public PeerScoreRanking.Standing standing(String departmentId, String role, String employeeId, double score) {
+        return rankings.get(new Cohort(departmentId, role)).join().standing(employeeId, score);
+    }
+
+    // Completes once the cohort is loaded, without blocking the caller while it loads
+    public CompletableFuture<PeerScoreRanking.Standing> standingAsync(String departmentId, String role,
+                                                                       String employeeId, double score) {
+        return rankings.get(new Cohort(departmentId, role)).thenApply(ranking -> ranking.standing(employeeId, score));
+    }
+
+    // Called once the reviews are in the rollups; cohorts not loaded yet, or still loading,
+    // will read them from there
+    public void recordReviews(List<PerformanceReview> reviews) {
+        for (PerformanceReview review : reviews) {
+            CompletableFuture<PeerScoreRanking> ranking = rankings.getIfPresent(
+                    new Cohort(review.getEmployeeInfo().getDepartmentId(), review.getEmployeeInfo().getRole()));
+            PeerScoreRanking loaded = ranking != null ? ranking.getNow(null) : null;
+            if (loaded != null) {
+                loaded.add(review.getEmployeeId(), review.getOverallScore());
+            }
+        }
+    }
+
+    // Called once re-scored reviews have moved their rollups, as recordReviews is
+    public void recordScoreChanges(List<ScoreChange> changes) {
+        for (ScoreChange change : changes) {
+            PerformanceReview review = change.review();
+            if (review.getEmployeeInfo() == null) {
+                continue;
+            }
+            CompletableFuture<PeerScoreRanking> ranking = rankings.getIfPresent(
+                    new Cohort(review.getEmployeeInfo().getDepartmentId(), review.getEmployeeInfo().getRole()));
+            PeerScoreRanking loaded = ranking != null ? ranking.getNow(null) : null;
+            if (loaded != null) {
+                loaded.adjust(review.getEmployeeId(), change.delta());
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        rankings.synchronous().invalidateAll();
+    }
+
+    private PeerScoreRanking load(Cohort cohort) {
+        PeerScoreRanking ranking = new PeerScoreRanking();
+        for (PeerScoreRollup rollup : rollupRepository.findByDepartmentIdAndRole(cohort.departmentId(), cohort.role())) {
+            ranking.put(rollup.getEmployeeId(), rollup.getScoreSum(), rollup.getReviewCount());
+        }
+        return ranking;
+    }
+
+    private record Cohort(String departmentId, String role) {
+    }
+}
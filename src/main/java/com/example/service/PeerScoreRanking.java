@@ -0,0 +1,121 @@
+package com.example.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Average scores of one department and role, kept in a Fenwick tree over 0.01-wide score
+// buckets so a percentile rank is a prefix count rather than a scan of every peer
+public class PeerScoreRanking {
+
+    private static final int SCALE = 100;
+    private static final int BUCKETS = 100 * SCALE + 1;
+    // Averages are summed in millionths of a point, like the buckets count in whole units, so
+    // removing a member takes back exactly what adding it put in and the sum never drifts
+    private static final long AVERAGE_SCALE = 1_000_000;
+
+    private final int[] tree = new int[BUCKETS + 1];
+    private final Map<String, Member> members = new HashMap<>();
+    private long averageSum;
+
+    // Replaces an employee's running totals, e.g. when loading the cohort from its rollups
+    public synchronized void put(String employeeId, double scoreSum, long reviewCount) {
+        Member member = members.get(employeeId);
+        if (member == null) {
+            member = new Member();
+            members.put(employeeId, member);
+        } else {
+            unlink(member);
+        }
+        member.scoreSum = scoreSum;
+        member.reviewCount = reviewCount;
+        link(member);
+    }
+
+    // Folds one more review into an employee's average
+    public synchronized void add(String employeeId, double score) {
+        Member member = members.get(employeeId);
+        if (member == null) {
+            put(employeeId, score, 1);
+            return;
+        }
+        unlink(member);
+        member.scoreSum += score;
+        member.reviewCount++;
+        link(member);
+    }
+
+    // Moves an employee's score sum without adding a review, e.g. after one was re-scored
+    public synchronized void adjust(String employeeId, double delta) {
+        Member member = members.get(employeeId);
+        if (member == null) {
+            return;
+        }
+        unlink(member);
+        member.scoreSum += delta;
+        link(member);
+    }
+
+    // Where a score stands against everyone in the cohort except the employee themselves
+    public synchronized Standing standing(String employeeId, double score) {
+        int peers = members.size();
+        int atOrBelow = prefixCount(bucket(score));
+        long peerAverageSum = averageSum;
+
+        Member self = members.get(employeeId);
+        if (self != null) {
+            peers--;
+            if (self.bucket <= bucket(score)) {
+                atOrBelow--;
+            }
+            peerAverageSum -= self.scaledAverage;
+        }
+        return new Standing(peers, atOrBelow, peers == 0 ? 0.0 : (double) peerAverageSum / AVERAGE_SCALE / peers);
+    }
+
+    private void link(Member member) {
+        member.bucket = bucket(member.average());
+        member.scaledAverage = Math.round(member.average() * AVERAGE_SCALE);
+        update(member.bucket, 1);
+        averageSum += member.scaledAverage;
+    }
+
+    private void unlink(Member member) {
+        update(member.bucket, -1);
+        averageSum -= member.scaledAverage;
+    }
+
+    // Scores that land in the same bucket rank as equal
+    static int bucket(double score) {
+        long bucket = Math.round(score * SCALE);
+        return (int) Math.max(0, Math.min(BUCKETS - 1, bucket));
+    }
+
+    private void update(int bucket, int delta) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Number of members whose bucket is at or below the given one
+    private int prefixCount(int bucket) {
+        int count = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private static class Member {
+        private double scoreSum;
+        private long reviewCount;
+        private int bucket;
+        private long scaledAverage;
+
+        private double average() {
+            return reviewCount == 0 ? 0.0 : scoreSum / reviewCount;
+        }
+    }
+
+    public record Standing(int peers, int peersAtOrBelow, double peerAverage) {
+    }
+}
@@ -1,29 +1,138 @@
 package com.example.service;
 
+import com.example.config.ReportCacheConfig;
 import com.example.dto.DepartmentSummary;
 import com.example.dto.PeerComparison;
 import com.example.dto.PerformanceReport;
+import com.example.dto.PerformanceTrends;
 import com.example.dto.SubmissionResponse;
 import com.example.dto.PerformanceReviewRequest;
+import com.example.model.EmployeeScoreStats;
 import com.example.model.PerformanceReview;
+import com.example.model.ScoringEngine;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
 import com.example.repository.PerformanceReviewRepository;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PerformanceReviewService {
 
-    private final PerformanceReviewRepository repository;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_TREND_MONTHS = 120;
+    private static final String SERVICE_TIMER = "reviews.service";
+    private static final String REPOSITORY_TIMER = "reviews.repository";
+    private static final int DUPLICATE_KEY = 11000;
 
-    public PerformanceReviewService(PerformanceReviewRepository repository) {
+    private final PerformanceReviewRepository repository;
+    private final EmployeeScoreStatsRepository statsRepository;
+    private final PeerScoreRollupRepository rollupRepository;
+    private final ReportCacheInvalidator cacheInvalidator;
+    private final PeerRankIndex peerRankIndex;
+    private final ReportAssembler reportAssembler;
+    private final RecentReviewKeys recentKeys;
+    private final AnalyticsIndex analyticsIndex;
+    private final ScoringPolicies scoringPolicies;
+    private final MeterRegistry meterRegistry;
+
+    public PerformanceReviewService(PerformanceReviewRepository repository,
+                                    EmployeeScoreStatsRepository statsRepository,
+                                    PeerScoreRollupRepository rollupRepository,
+                                    ReportCacheInvalidator cacheInvalidator,
+                                    PeerRankIndex peerRankIndex,
+                                    ReportAssembler reportAssembler,
+                                    RecentReviewKeys recentKeys,
+                                    AnalyticsIndex analyticsIndex,
+                                    ScoringPolicies scoringPolicies,
+                                    MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.statsRepository = statsRepository;
+        this.rollupRepository = rollupRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.peerRankIndex = peerRankIndex;
+        this.reportAssembler = reportAssembler;
+        this.recentKeys = recentKeys;
+        this.analyticsIndex = analyticsIndex;
+        this.scoringPolicies = scoringPolicies;
+        this.meterRegistry = meterRegistry;
     }
 
+    @Timed(SERVICE_TIMER)
     public SubmissionResponse submitReview(PerformanceReviewRequest request) {
+        PerformanceReview review = createReview(request);
+        String duplicateId = recentDuplicateOf(review);
+        if (duplicateId != null) {
+            return new SubmissionResponse(duplicateId, SubmissionResponse.DUPLICATE);
+        }
+
+        // Save review and fold it into the running aggregates
+        PerformanceReview savedReview;
+        try {
+            savedReview = timeQuery("save", () -> repository.save(review));
+        } catch (DuplicateKeyException e) {
+            // Stored earlier, or by another instance, under the same idempotency key. The attempt
+            // that stored it may have failed before recording it, and a retry arrives with a new
+            // id, so the stored review is recorded; the aggregates skip reviews they already hold
+            // A review the lookup cannot see yet is not answered with a null id; the caller
+            // retries, and either the lookup finds it or the insert goes in
+            PerformanceReview stored = timeQuery("findByIdempotencyKey",
+                    () -> repository.findByIdempotencyKey(review.getIdempotencyKey()))
+                    .orElseThrow(() -> e);
+            countDuplicate("index");
+            recordAggregates(List.of(stored));
+            return new SubmissionResponse(stored.getId(), SubmissionResponse.DUPLICATE);
+        }
+        recordAggregates(List.of(savedReview));
+
+        // Return response
+        return new SubmissionResponse(savedReview.getId(), SubmissionResponse.SUBMITTED);
+    }
+
+    // Id of the review already stored under this review's idempotency key, when this instance
+    // stored it recently; callers drop the review instead of writing it
+    public String recentDuplicateOf(PerformanceReview review) {
+        String reviewId = recentKeys.reviewIdFor(review.getIdempotencyKey());
+        if (reviewId != null) {
+            countDuplicate("recent");
+        }
+        return reviewId;
+    }
+
+    // Duplicate-key bulk errors are reviews that are already stored, not failed writes
+    public static boolean isDuplicate(BulkWriteError error) {
+        return error.getCode() == DUPLICATE_KEY;
+    }
+
+    // Validates and scores a request without persisting it, so batch callers can
+    // reject individual items before handing the rest to saveReviews
+    // Not @Timed: it takes nanoseconds and the aspect would allocate more than the review itself
+    public PerformanceReview createReview(PerformanceReviewRequest request) {
         // Validate request
         if (request.getEmployeeId() == null || request.getReviewerId() == null) {
             throw new IllegalArgumentException("Missing required fields: employeeId or reviewerId");
@@ -35,182 +144,321 @@ public class PerformanceReviewService {
             throw new IllegalArgumentException("Missing required field: employeeInfo");
         }
 
+        // Scored before anything is built, so a rejected request allocates nothing but its
+        // exception; the department's compiled weights are cached
+        double overallScore = scoringPolicies.forDepartment(request.getEmployeeInfo().getDepartmentId())
+                .score(request.getMetrics());
+
         // Create new review from request
         PerformanceReview review = new PerformanceReview();
         review.setEmployeeId(request.getEmployeeId());
         review.setReviewerId(request.getReviewerId());
-        review.setReviewDate(LocalDate.now()); // Set current date
+        review.setReviewDate(ScoringEngine.today());
         review.setMetrics(request.getMetrics());
         review.setComments(request.getComments());
         review.setEmployeeInfo(request.getEmployeeInfo());
+        review.setIdempotencyKey(request.getIdempotencyKey());
+        review.setOverallScore(overallScore);
 
-        review.calculateOverallScore(); // This will validate metrics range
+        return review;
+    }
 
-        // Save review
-        PerformanceReview savedReview = repository.save(review);
+    // Writes already validated reviews with a single unordered bulk insert. Reviews whose
+    // idempotency key is already stored are skipped by the unique index; the exception is only
+    // rethrown when some other write failed, and callers should ignore its duplicate errors.
+    // Safe to call again after a failure: whatever a duplicate collided with, the same review
+    // stored under its own id or another stored under its idempotency key, is recorded in the
+    // aggregates again, which leaves them unchanged if it was. Each duplicate is given the id
+    // of the review it duplicates, or null if that cannot be found, for callers to answer with
+    @Timed(SERVICE_TIMER)
+    public List<PerformanceReview> saveReviews(List<PerformanceReview> reviews) {
+        if (reviews.isEmpty()) {
+            return reviews;
+        }
+        try {
+            timeQuery("bulkInsert", () -> repository.bulkInsert(reviews));
+        } catch (BulkOperationException e) {
+            // Keep aggregates in step with the reviews that did make it in before rethrowing
+            BitSet failed = new BitSet(reviews.size());
+            List<Integer> duplicateIndexes = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.set(error.getIndex());
+                if (isDuplicate(error)) {
+                    duplicateIndexes.add(error.getIndex());
+                }
+            }
+            Set<String> recordedIds = new HashSet<>();
+            for (int i = 0; i < reviews.size(); i++) {
+                if (!failed.get(i) && reviews.get(i).getId() != null) {
+                    recordedIds.add(reviews.get(i).getId());
+                }
+            }
+
+            // A duplicate that finds itself stored was written by an earlier attempt at these
+            // reviews and counts as inserted; one that finds another review under its key is
+            // answered by that review, which is recorded unless this call already records it
+            List<PerformanceReview> stored = findStored(duplicateIndexes.stream().map(reviews::get).toList());
+            BitSet storedEarlier = new BitSet(reviews.size());
+            List<PerformanceReview> recovered = new ArrayList<>();
+            for (int i = 0; i < duplicateIndexes.size(); i++) {
+                PerformanceReview review = reviews.get(duplicateIndexes.get(i));
+                PerformanceReview existing = stored.get(i);
+                if (existing == null) {
+                    review.setId(null);
+                    continue;
+                }
+                if (existing.getId().equals(review.getId())) {
+                    storedEarlier.set(duplicateIndexes.get(i));
+                    continue;
+                }
+                // Also another review of this call under the same key, recorded with the rest
+                review.setId(existing.getId());
+                if (recordedIds.add(existing.getId())) {
+                    recovered.add(existing);
+                }
+            }
+            List<PerformanceReview> inserted = new ArrayList<>(reviews.size());
+            for (int i = 0; i < reviews.size(); i++) {
+                if (!failed.get(i) || storedEarlier.get(i)) {
+                    inserted.add(reviews.get(i));
+                }
+            }
+            List<PerformanceReview> recorded = new ArrayList<>(inserted);
+            recorded.addAll(recovered);
+            recordAggregates(recorded);
+
+            long duplicateErrors = duplicateIndexes.size();
+            long duplicates = duplicateErrors - storedEarlier.cardinality();
+            if (duplicates > 0) {
+                meterRegistry.counter("reviews.duplicates", "source", "index").increment(duplicates);
+            }
+            if (duplicateErrors < e.getErrors().size()) {
+                throw e;
+            }
+            return inserted;
+        }
+        recordAggregates(reviews);
+        return reviews;
+    }
 
-        // Return response
-        return new SubmissionResponse(savedReview.getId(), "submitted");
+    // What each duplicate collided with, aligned with them and null where nothing is found:
+    // the review stored under its idempotency key, or without a key, itself if its id is stored
+    private List<PerformanceReview> findStored(List<PerformanceReview> duplicates) {
+        List<String> keys = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (PerformanceReview review : duplicates) {
+            if (review.getIdempotencyKey() != null) {
+                keys.add(review.getIdempotencyKey());
+            } else if (review.getId() != null) {
+                ids.add(review.getId());
+            }
+        }
+        Map<String, PerformanceReview> byKey = new HashMap<>();
+        if (!keys.isEmpty()) {
+            timeQuery("findByIdempotencyKeyIn", () -> repository.findByIdempotencyKeyIn(keys))
+                    .forEach(review -> byKey.put(review.getIdempotencyKey(), review));
+        }
+        Set<String> existingIds = ids.isEmpty()
+                ? Set.of()
+                : timeQuery("findExistingIds", () -> repository.findExistingIds(ids));
+
+        List<PerformanceReview> stored = new ArrayList<>(duplicates.size());
+        for (PerformanceReview review : duplicates) {
+            if (review.getIdempotencyKey() != null) {
+                stored.add(byKey.get(review.getIdempotencyKey()));
+            } else {
+                stored.add(review.getId() != null && existingIds.contains(review.getId()) ? review : null);
+            }
+        }
+        return stored;
+    }
+
+    private void recordAggregates(List<PerformanceReview> reviews) {
+        timeWrite("recordStats", () -> statsRepository.recordReviews(reviews));
+        // The in-memory rankings and index follow the rollups, so a review recorded again
+        // is not counted twice there either
+        List<PerformanceReview> recorded = timeQuery("recordRollups", () -> rollupRepository.recordReviews(reviews));
+        peerRankIndex.recordReviews(recorded);
+        recentKeys.recordReviews(reviews);
+        analyticsIndex.recordReviews(recorded);
+        // Evict only after the aggregates are written so a reload sees the new scores
+        cacheInvalidator.evict(reviews);
     }
 
+    @Timed(SERVICE_TIMER)
+    @Cacheable(cacheNames = ReportCacheConfig.EMPLOYEE_PERFORMANCE, key = "#employeeId", sync = true)
     public PerformanceReport getEmployeePerformance(String employeeId) {
-        List<PerformanceReview> allReviews = repository.findByEmployeeId(employeeId);
-        if (allReviews.isEmpty()) {
-            throw new IllegalArgumentException("No reviews found for employee: " + employeeId);
+        // One cursor pass over the history (newest first)
+        ReportAssembler.EmployeeReport report = reportAssembler.employeeReport(employeeId);
+        // Timed across the whole pass, since documents are fetched as the cursor is iterated
+        Timer.Sample cursorSample = Timer.start(meterRegistry);
+        try (Stream<PerformanceReview> reviews = repository.streamByEmployeeIdOrderByReviewDateDesc(employeeId)) {
+            Iterator<PerformanceReview> iterator = reviews.iterator();
+            while (iterator.hasNext()) {
+                report.add(iterator.next());
+            }
+        } finally {
+            cursorSample.stop(meterRegistry.timer(REPOSITORY_TIMER, "call", "streamReviews"));
         }
+        return report.build();
+    }
 
-        // Get latest review for department info
-        PerformanceReview latestReview = allReviews.stream()
-                .max(Comparator.comparing(PerformanceReview::getReviewDate))
-                .orElseThrow();
+    // Paginated report: aggregates come from the employee's running stats and reviews are
+    // read one keyset page at a time, so the cost does not grow with the review history
+    @Timed(SERVICE_TIMER)
+    @Cacheable(cacheNames = ReportCacheConfig.EMPLOYEE_PERFORMANCE, sync = true,
+            key = "T(com.example.service.ReportCacheInvalidator).pageKey(#employeeId, #cursor, #limit)")
+    public PerformanceReport getEmployeePerformance(String employeeId, String cursor, int limit) {
+        cacheInvalidator.trackPage(ReportCacheInvalidator.pageKey(employeeId, cursor, limit));
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+
+        ScoreColumns columns = analyticsIndex.columns();
+        EmployeeScoreStats stats = findStats(columns, employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("No reviews found for employee: " + employeeId));
+
+        LocalDate beforeDate = null;
+        String beforeId = null;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            beforeDate = LocalDate.parse(position[0]);
+            beforeId = position[1];
+        }
 
-        // Calculate overall average
-        double averageScore = allReviews.stream()
-                .mapToDouble(PerformanceReview::getOverallScore)
-                .average()
-                .orElse(0.0);
+        // Fetch one extra review to learn whether another page follows
+        LocalDate pageDate = beforeDate;
+        String pageId = beforeId;
+        List<PerformanceReview> page = timeQuery("findReviewPage",
+                () -> repository.findReviewPage(employeeId, pageDate, pageId, pageSize + 1));
+        String nextCursor = null;
+        if (page.size() > pageSize) {
+            page = page.subList(0, pageSize);
+            PerformanceReview last = page.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getReviewDate(), last.getId());
+        }
 
-        // Calculate trends
+        // The same exact-day windows as the unpaginated report
         LocalDate now = LocalDate.now();
         LocalDate quarterAgo = now.minusMonths(3);
         LocalDate yearAgo = now.minusYears(1);
+        double quarterAverage;
+        double yearAverage;
+        if (columns != null) {
+            quarterAverage = columns.averageScoreBetween(employeeId, quarterAgo, now);
+            yearAverage = columns.averageScoreBetween(employeeId, yearAgo, now);
+        } else {
+            // The stats hold whole months, so the few reviews of the edge months that fall
+            // outside either window are read to take them back out
+            List<PerformanceReview> edgeReviews = timeQuery("findEdgeScores", () -> repository.findScoresBetween(
+                    employeeId, List.of(
+                            Pair.of(yearAgo.withDayOfMonth(1), yearAgo.minusDays(1)),
+                            Pair.of(quarterAgo.withDayOfMonth(1), quarterAgo.minusDays(1)),
+                            Pair.of(now.plusDays(1), YearMonth.from(now).atEndOfMonth()))));
+            quarterAverage = stats.averageScoreBetween(quarterAgo, now, edgeReviews);
+            yearAverage = stats.averageScoreBetween(yearAgo, now, edgeReviews);
+        }
 
-        // Get reviews within last quarter
-        List<PerformanceReview> quarterReviews = repository.findByEmployeeIdAndReviewDateBetween(
-                employeeId, quarterAgo, now);
-        double quarterAverage = quarterReviews.stream()
-                .mapToDouble(PerformanceReview::getOverallScore)
-                .average()
-                .orElse(0.0);
-
-        // Get reviews within last year
-        List<PerformanceReview> yearReviews = repository.findByEmployeeIdAndReviewDateBetween(
-                employeeId, yearAgo, now);
-        double yearAverage = yearReviews.stream()
-                .mapToDouble(PerformanceReview::getOverallScore)
-                .average()
-                .orElse(0.0);
-
-        // Convert reviews to DTO format
-        List<PerformanceReport.Review> reviewDTOs = allReviews.stream()
-                .sorted(Comparator.comparing(PerformanceReview::getReviewDate).reversed())
-                .map(review -> {
-                    PerformanceReport.Review dto = new PerformanceReport.Review();
-                    dto.setReviewDate(review.getReviewDate());
-                    dto.setMetrics(review.getMetrics());
-                    dto.setComments(review.getComments());
-                    dto.setOverallScore(review.getOverallScore());
-                    return dto;
-                })
-                .collect(Collectors.toList());
-
-        // Create and return report
         PerformanceReport report = new PerformanceReport();
         report.setEmployeeId(employeeId);
-        report.setDepartmentId(latestReview.getEmployeeInfo().getDepartmentId());
-        report.setAverageScore(Math.round(averageScore * 100.0) / 100.0);
-        report.setReviews(reviewDTOs);
-        report.setTrends(new PerformanceReport.Trends(Math.round(quarterAverage * 100.0) / 100.0, Math.round(yearAverage * 100.0) / 100.0));
+        report.setDepartmentId(stats.getDepartmentId());
+        report.setAverageScore(ScoringEngine.round(stats.averageScore()));
+        report.setReviews(page.stream().map(ReportAssembler::toReviewDto).collect(Collectors.toList()));
+        report.setTrends(new PerformanceReport.Trends(ScoringEngine.round(quarterAverage), ScoringEngine.round(yearAverage)));
+        report.setNextCursor(nextCursor);
         return report;
     }
 
-    public PeerComparison getPeerComparison(String employeeId) {
-        List<PerformanceReview> reviews = repository.findByEmployeeId(employeeId);
-        if (reviews.isEmpty()) {
-            throw new IllegalArgumentException("No reviews found for employee: " + employeeId);
-        }
-
-        // Get the employee's latest review for current role and department
-        PerformanceReview latestReview = reviews.stream()
-                .max(Comparator.comparing(PerformanceReview::getReviewDate))
-                .orElseThrow();
-
-        // Calculate employee's average score
-        double employeeAvgScore = reviews.stream()
-                .mapToDouble(PerformanceReview::getOverallScore)
-                .average()
-                .orElse(0.0);
-
-        // Get peer scores
-        String departmentId = latestReview.getEmployeeInfo().getDepartmentId();
-        String role = latestReview.getEmployeeInfo().getRole();
-        List<PerformanceReviewRepository.AggregationResult> peers = repository.getPeerAggregation(departmentId, role);
-
-        // Calculate peer average (excluding the current employee)
-        List<PerformanceReviewRepository.AggregationResult> peerScores = peers.stream()
-                .filter(p -> !p.getId().equals(employeeId))
-                .collect(Collectors.toList());
-
-        // Calculate peer average
-        double peerAverage = peerScores.stream()
-                .mapToDouble(PerformanceReviewRepository.AggregationResult::getAvgScore)
-                .average()
-                .orElse(0.0);
-
-        // Calculate percentile rank
-        long peersBelow = peerScores.stream()
-                .filter(p -> p.getAvgScore() <= employeeAvgScore)  
-                .count();
-
-        double percentileRank = peerScores.isEmpty() ? 100.0 : 
-                               (double) peersBelow / peerScores.size() * 100.0;
-
-        // Create response with rounded scores
-        PeerComparison comparison = new PeerComparison();
-        comparison.setEmployeeId(employeeId);
-        comparison.setDepartmentId(departmentId);
-        comparison.setRole(role);
-        comparison.setAverageScore(Math.round(employeeAvgScore * 100.0) / 100.0);
-        comparison.setPercentileRank(Math.round(percentileRank * 100.0) / 100.0);
-        comparison.setPeerAverageScore(Math.round(peerAverage * 100.0) / 100.0);
+    // Answered from the employee's monthly buckets, never from the reviews themselves
+    @Timed(SERVICE_TIMER)
+    @Cacheable(cacheNames = ReportCacheConfig.EMPLOYEE_PERFORMANCE, sync = true,
+            key = "T(com.example.service.ReportCacheInvalidator).pageKey(#employeeId, 'trends', #months, #window)")
+    public PerformanceTrends getEmployeeTrends(String employeeId, int months, int window) {
+        cacheInvalidator.trackPage(ReportCacheInvalidator.pageKey(employeeId, "trends", months, window));
+        if (months < 1 || months > MAX_TREND_MONTHS || window < 1 || window > MAX_TREND_MONTHS) {
+            throw new IllegalArgumentException("Trend months and window must be between 1 and " + MAX_TREND_MONTHS);
+        }
+
+        ScoreColumns columns = analyticsIndex.columns();
+        EmployeeScoreStats stats = (columns != null
+                ? columns.monthlyStats(employeeId)
+                : timeQuery("findMonthlyBuckets", () -> statsRepository.findMonthlyBucketsById(employeeId)))
+                .orElseThrow(() -> new IllegalArgumentException("No reviews found for employee: " + employeeId));
+        return reportAssembler.trends(stats, YearMonth.now(), months, window);
+    }
+
+    // Review history newest first, converted lazily from a Mongo cursor; callers must close the stream
+    public Stream<PerformanceReport.Review> streamEmployeeReviews(String employeeId) {
+        return repository.streamByEmployeeIdOrderByReviewDateDesc(employeeId)
+                .map(ReportAssembler::toReviewDto);
+    }
+
+    // From the analytics index when it is loaded, otherwise from the stored running stats
+    private Optional<EmployeeScoreStats> findStats(ScoreColumns columns, String employeeId) {
+        return columns != null
+                ? columns.employeeStats(employeeId)
+                : timeQuery("findStats", () -> statsRepository.findById(employeeId));
+    }
+
+    private void countDuplicate(String source) {
+        meterRegistry.counter("reviews.duplicates", "source", source).increment();
+    }
+
+    private <T> T timeQuery(String call, Supplier<T> query) {
+        return meterRegistry.timer(REPOSITORY_TIMER, "call", call).record(query);
+    }
+
+    private void timeWrite(String call, Runnable write) {
+        meterRegistry.timer(REPOSITORY_TIMER, "call", call).record(write);
+    }
 
+    private static String encodeCursor(LocalDate reviewDate, String reviewId) {
+        String position = reviewDate + "|" + reviewId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDate.parse(position[0]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    @Timed(SERVICE_TIMER)
+    @Cacheable(cacheNames = ReportCacheConfig.PEER_COMPARISON, key = "#employeeId", sync = true)
+    public PeerComparison getPeerComparison(String employeeId) {
+        // Employee's average score and current role and department
+        ScoreColumns columns = analyticsIndex.columns();
+        EmployeeScoreStats stats = findStats(columns, employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("No reviews found for employee: " + employeeId));
+
+        // Standing among the other employees in the same department and role, from the cohort's
+        // ranking even with the analytics index, whose rows would all have to be scanned
+        long generation = cacheInvalidator.peerGeneration(stats.getDepartmentId(), stats.getRole());
+        PeerScoreRanking.Standing standing = timeQuery("peerRanking", () -> peerRankIndex.standing(
+                stats.getDepartmentId(), stats.getRole(), employeeId, stats.averageScore()));
+        PeerComparison comparison = reportAssembler.peerComparison(employeeId, stats, standing);
+        cacheInvalidator.trackPeerComparison(comparison, generation);
         return comparison;
     }
 
+    @Timed(SERVICE_TIMER)
+    @Cacheable(cacheNames = ReportCacheConfig.DEPARTMENT_SUMMARY, key = "#departmentId", sync = true)
     public DepartmentSummary getDepartmentSummary(String departmentId) {
-        List<PerformanceReviewRepository.DepartmentResult> results = 
-                repository.getDepartmentAggregation(departmentId);
-
-        if (results.isEmpty()) {
-            throw new IllegalArgumentException("No reviews found for department: " + departmentId);
-        }
-
-        // Calculate department average
-        double departmentAverage = results.stream()
-                .mapToDouble(PerformanceReviewRepository.DepartmentResult::getAvgScore)
-                .average()
-                .orElse(0.0);
-
-        // Sort all results by score in descending order
-        List<PerformanceReviewRepository.DepartmentResult> sortedResults = results.stream()
-                .sorted(Comparator.comparingDouble(PerformanceReviewRepository.DepartmentResult::getAvgScore).reversed())
-                .collect(Collectors.toList());
-
-        // Take top 2 performers
-        List<DepartmentSummary.EmployeePerformance> topPerformers = sortedResults.stream()
-                .limit(2)
-                .map(result -> new DepartmentSummary.EmployeePerformance(
-                        result.getId(),
-                        Math.round(result.getAvgScore() * 100.0) / 100.0,
-                        sortedResults.indexOf(result) + 1))
-                .collect(Collectors.toList());
-
-        // All others are low performers
-        List<DepartmentSummary.EmployeePerformance> lowPerformers = sortedResults.stream()
-                .skip(2) // Skip the top 2
-                .map(result -> new DepartmentSummary.EmployeePerformance(
-                        result.getId(),
-                        Math.round(result.getAvgScore() * 100.0) / 100.0,
-                        null))
-                .collect(Collectors.toList());
-
-        // Create and return summary
-        DepartmentSummary summary = new DepartmentSummary();
-        summary.setDepartmentId(departmentId);
-        summary.setAverageScore(Math.round(departmentAverage * 100.0) / 100.0);
-        summary.setTopPerformers(topPerformers);
-        summary.setLowPerformers(lowPerformers);
-
-        return summary;
+        ScoreColumns columns = analyticsIndex.columns();
+        List<PeerScoreRollupRepository.DepartmentResult> results = columns != null
+                ? columns.departmentResults(departmentId)
+                : timeQuery("departmentAggregation", () -> rollupRepository.getDepartmentAggregation(departmentId));
+
+        ReportAssembler.DepartmentRanking ranking = reportAssembler.departmentRanking(departmentId);
+        results.forEach(ranking::add);
+        return ranking.build();
     }
 }
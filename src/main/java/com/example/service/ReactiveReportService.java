@@ -0,0 +1,75 @@
+package com.example.service;
+
+import com.example.config.ReportCacheConfig;
+import com.example.dto.DepartmentSummary;
+import com.example.dto.PeerComparison;
+import com.example.dto.PerformanceReport;
+import com.example.repository.ReactiveEmployeeScoreStatsRepository;
+import com.example.repository.ReactivePeerScoreRollupRepository;
+import com.example.repository.ReactivePerformanceReviewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterparts of the PerformanceReviewService reports. Results share the same
+// caches and keys, so submissions evict them exactly as they do the blocking ones
+@Service
+@RequiredArgsConstructor
+public class ReactiveReportService {
+
+    private static final String REPOSITORY_TIMER = "reviews.repository";
+
+    private final ReactivePerformanceReviewRepository repository;
+    private final ReactiveEmployeeScoreStatsRepository statsRepository;
+    private final ReactivePeerScoreRollupRepository rollupRepository;
+    private final PeerRankIndex peerRankIndex;
+    private final ReportCacheInvalidator cacheInvalidator;
+    private final ReportAssembler reportAssembler;
+    private final MeterRegistry meterRegistry;
+
+    @Cacheable(cacheNames = ReportCacheConfig.EMPLOYEE_PERFORMANCE, key = "#employeeId", sync = true)
+    public Mono<PerformanceReport> getEmployeePerformance(String employeeId) {
+        // Folded into the report as documents arrive; only the report itself is held in memory
+        return timed("reactiveStreamReviews", repository.findByEmployeeIdOrderByReviewDateDesc(employeeId)
+                .collect(() -> reportAssembler.employeeReport(employeeId), ReportAssembler.EmployeeReport::add))
+                .map(ReportAssembler.EmployeeReport::build);
+    }
+
+    // Review history newest first, read from the cursor only as fast as the subscriber requests
+    public Flux<PerformanceReport.Review> streamEmployeeReviews(String employeeId) {
+        return repository.findByEmployeeIdOrderByReviewDateDesc(employeeId)
+                .map(ReportAssembler::toReviewDto);
+    }
+
+    @Cacheable(cacheNames = ReportCacheConfig.PEER_COMPARISON, key = "#employeeId", sync = true)
+    public Mono<PeerComparison> getPeerComparison(String employeeId) {
+        return timed("reactiveFindStats", statsRepository.findById(employeeId))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("No reviews found for employee: " + employeeId)))
+                .flatMap(stats -> {
+                    long generation = cacheInvalidator.peerGeneration(stats.getDepartmentId(), stats.getRole());
+                    return Mono.fromFuture(() -> peerRankIndex.standingAsync(
+                                    stats.getDepartmentId(), stats.getRole(), employeeId, stats.averageScore()))
+                            .map(standing -> reportAssembler.peerComparison(employeeId, stats, standing))
+                            .doOnNext(comparison -> cacheInvalidator.trackPeerComparison(comparison, generation));
+                });
+    }
+
+    @Cacheable(cacheNames = ReportCacheConfig.DEPARTMENT_SUMMARY, key = "#departmentId", sync = true)
+    public Mono<DepartmentSummary> getDepartmentSummary(String departmentId) {
+        return timed("reactiveDepartmentAggregation", rollupRepository.getDepartmentAggregation(departmentId)
+                .collect(() -> reportAssembler.departmentRanking(departmentId), ReportAssembler.DepartmentRanking::add))
+                .map(ReportAssembler.DepartmentRanking::build);
+    }
+
+    // Measured from subscription to completion, the reactive equivalent of a blocking call's duration
+    private <T> Mono<T> timed(String call, Mono<T> query) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return query.doFinally(signal -> sample.stop(meterRegistry.timer(REPOSITORY_TIMER, "call", call)));
+        });
+    }
+}
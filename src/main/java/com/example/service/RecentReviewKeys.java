@@ -0,0 +1,44 @@
+package com.example.service;
+
+import com.example.model.PerformanceReview;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Idempotency keys this instance stored recently, with the id of the review stored under each,
+// so a redelivered review is dropped without a round trip to MongoDB. Anything older, or stored
+// by another instance, is caught by the unique index on idempotencyKey instead
+@Component
+public class RecentReviewKeys {
+
+    private final Cache<String, String> reviewIds;
+
+    public RecentReviewKeys(@Value("${reviews.idempotency.recent-keys:100000}") long maxKeys,
+                            @Value("${reviews.idempotency.recent-ttl:1h}") Duration ttl) {
+        this.reviewIds = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Id of the review stored under the key, or null when the key has not been seen recently
+    public String reviewIdFor(String idempotencyKey) {
+        return idempotencyKey == null ? null : reviewIds.getIfPresent(idempotencyKey);
+    }
+
+    public void record(String idempotencyKey, String reviewId) {
+        reviewIds.put(idempotencyKey, reviewId);
+    }
+
+    public void recordReviews(List<PerformanceReview> reviews) {
+        for (PerformanceReview review : reviews) {
+            if (review.getIdempotencyKey() != null && review.getId() != null) {
+                reviewIds.put(review.getIdempotencyKey(), review.getId());
+            }
+        }
+    }
+}
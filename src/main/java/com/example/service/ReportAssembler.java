@@ -0,0 +1,247 @@
+package com.example.service;
+
+import com.example.dto.DepartmentSummary;
+import com.example.dto.PeerComparison;
+import com.example.dto.PerformanceReport;
+import com.example.dto.PerformanceTrends;
+import com.example.model.EmployeeScoreStats;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoringEngine;
+import com.example.repository.PeerScoreRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Builds the report DTOs one document at a time, so the blocking and reactive query paths
+// share the same single-pass logic whether they pull from a cursor or are pushed by a Flux
+@Component
+public class ReportAssembler {
+
+    // Ascending by score; ties go to the lower employee id so ranks are stable between calls
+    private static final Comparator<PeerScoreRollupRepository.DepartmentResult> BY_SCORE =
+            Comparator.comparingDouble(PeerScoreRollupRepository.DepartmentResult::getAvgScore)
+                    .thenComparing(PeerScoreRollupRepository.DepartmentResult::getId, Comparator.reverseOrder());
+
+    // Size of the department summary lists; the rest of the department is only counted
+    @Value("${reports.department.top-performers:2}")
+    private int topPerformerCount = 2;
+
+    @Value("${reports.department.low-performers:10}")
+    private int lowPerformerCount = 10;
+
+    // When set, only employees scoring below it are listed as low performers
+    @Value("${reports.department.low-performer-threshold:#{null}}")
+    private Double lowPerformerThreshold;
+
+    public EmployeeReport employeeReport(String employeeId) {
+        return new EmployeeReport(employeeId, LocalDate.now());
+    }
+
+    public DepartmentRanking departmentRanking(String departmentId) {
+        return new DepartmentRanking(departmentId);
+    }
+
+    public PeerComparison peerComparison(String employeeId, EmployeeScoreStats stats, PeerScoreRanking.Standing standing) {
+        double employeeAvgScore = stats.averageScore();
+        double peerAverage = standing.peerAverage();
+
+        // Calculate percentile rank
+        double percentileRank = standing.peers() == 0 ? 100.0 :
+                               (double) standing.peersAtOrBelow() / standing.peers() * 100.0;
+
+        // Create response with rounded scores
+        PeerComparison comparison = new PeerComparison();
+        comparison.setEmployeeId(employeeId);
+        comparison.setDepartmentId(stats.getDepartmentId());
+        comparison.setRole(stats.getRole());
+        comparison.setAverageScore(ScoringEngine.round(employeeAvgScore));
+        comparison.setPercentileRank(ScoringEngine.round(percentileRank));
+        comparison.setPeerAverageScore(ScoringEngine.round(peerAverage));
+        return comparison;
+    }
+
+    // Monthly averages for the `months` months ending with `current`, each with the average of
+    // the `window` months ending there and the change from the same month a year before
+    public PerformanceTrends trends(EmployeeScoreStats stats, YearMonth current, int months, int window) {
+        YearMonth first = current.minusMonths(months - 1);
+        MonthlyScoreSeries series = new MonthlyScoreSeries(stats.getMonthlyBuckets(),
+                first.minusMonths(Math.max(window - 1, 12)), current);
+
+        List<PerformanceTrends.Month> trendMonths = new ArrayList<>(months);
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+            Double average = series.average(month, month);
+            trendMonths.add(new PerformanceTrends.Month(
+                    month.toString(),
+                    series.count(month, month),
+                    round(average),
+                    round(series.average(month.minusMonths(window - 1), month)),
+                    change(average, series.average(month.minusYears(1), month.minusYears(1)))));
+        }
+
+        Double average = series.average(first, current);
+        PerformanceTrends trends = new PerformanceTrends();
+        trends.setEmployeeId(stats.getEmployeeId());
+        trends.setWindow(window);
+        trends.setAverageScore(round(average));
+        trends.setYearOverYearChange(change(average, series.average(first.minusYears(1), current.minusYears(1))));
+        trends.setMonths(trendMonths);
+        return trends;
+    }
+
+    private static Double change(Double current, Double previous) {
+        return current == null || previous == null ? null : round(current - previous);
+    }
+
+    private static Double round(Double score) {
+        return score == null ? null : ScoringEngine.round(score);
+    }
+
+    public static PerformanceReport.Review toReviewDto(PerformanceReview review) {
+        PerformanceReport.Review dto = new PerformanceReport.Review();
+        dto.setReviewDate(review.getReviewDate());
+        dto.setMetrics(review.getMetrics());
+        dto.setComments(review.getComments());
+        dto.setOverallScore(review.getOverallScore());
+        return dto;
+    }
+
+    // Fed the history newest first; builds the review list, overall average, latest
+    // department and both trend averages together
+    public static class EmployeeReport {
+        private final String employeeId;
+        private final LocalDate now;
+        private final LocalDate quarterAgo;
+        private final LocalDate yearAgo;
+        private final List<PerformanceReport.Review> reviews = new ArrayList<>();
+        private String departmentId;
+        private double scoreSum;
+        private double quarterSum;
+        private int quarterCount;
+        private double yearSum;
+        private int yearCount;
+
+        private EmployeeReport(String employeeId, LocalDate now) {
+            this.employeeId = employeeId;
+            this.now = now;
+            this.quarterAgo = now.minusMonths(3);
+            this.yearAgo = now.minusYears(1);
+        }
+
+        public void add(PerformanceReview review) {
+            if (departmentId == null) {
+                departmentId = review.getEmployeeInfo().getDepartmentId();
+            }
+
+            double score = review.getOverallScore();
+            LocalDate reviewDate = review.getReviewDate();
+            scoreSum += score;
+            if (!reviewDate.isBefore(yearAgo) && !reviewDate.isAfter(now)) {
+                yearSum += score;
+                yearCount++;
+                if (!reviewDate.isBefore(quarterAgo)) {
+                    quarterSum += score;
+                    quarterCount++;
+                }
+            }
+
+            reviews.add(toReviewDto(review));
+        }
+
+        public PerformanceReport build() {
+            if (reviews.isEmpty()) {
+                throw new IllegalArgumentException("No reviews found for employee: " + employeeId);
+            }
+
+            double averageScore = scoreSum / reviews.size();
+            double quarterAverage = quarterCount == 0 ? 0.0 : quarterSum / quarterCount;
+            double yearAverage = yearCount == 0 ? 0.0 : yearSum / yearCount;
+
+            PerformanceReport report = new PerformanceReport();
+            report.setEmployeeId(employeeId);
+            report.setDepartmentId(departmentId);
+            report.setAverageScore(ScoringEngine.round(averageScore));
+            report.setReviews(reviews);
+            report.setTrends(new PerformanceReport.Trends(ScoringEngine.round(quarterAverage), ScoringEngine.round(yearAverage)));
+            return report;
+        }
+    }
+
+    // Keeps the best K in a min-heap and the lowest L of everyone else in a max-heap,
+    // so only K + L employees are held however large the department is
+    public class DepartmentRanking {
+        private final String departmentId;
+        private final PriorityQueue<PeerScoreRollupRepository.DepartmentResult> top =
+                new PriorityQueue<>(topPerformerCount + 1, BY_SCORE);
+        private final PriorityQueue<PeerScoreRollupRepository.DepartmentResult> low =
+                new PriorityQueue<>(lowPerformerCount + 1, BY_SCORE.reversed());
+        private double scoreSum;
+        private int employeeCount;
+
+        private DepartmentRanking(String departmentId) {
+            this.departmentId = departmentId;
+        }
+
+        public void add(PeerScoreRollupRepository.DepartmentResult result) {
+            scoreSum += result.getAvgScore();
+            employeeCount++;
+            top.add(result);
+            if (top.size() > topPerformerCount) {
+                offerLowPerformer(top.poll());
+            }
+        }
+
+        public DepartmentSummary build() {
+            if (employeeCount == 0) {
+                throw new IllegalArgumentException("No reviews found for department: " + departmentId);
+            }
+            double departmentAverage = scoreSum / employeeCount;
+
+            List<DepartmentSummary.EmployeePerformance> topPerformers = new ArrayList<>(top.size());
+            for (PeerScoreRollupRepository.DepartmentResult result : descending(top)) {
+                topPerformers.add(new DepartmentSummary.EmployeePerformance(
+                        result.getId(),
+                        ScoringEngine.round(result.getAvgScore()),
+                        topPerformers.size() + 1));
+            }
+
+            List<DepartmentSummary.EmployeePerformance> lowPerformers = new ArrayList<>(low.size());
+            for (PeerScoreRollupRepository.DepartmentResult result : descending(low)) {
+                lowPerformers.add(new DepartmentSummary.EmployeePerformance(
+                        result.getId(),
+                        ScoringEngine.round(result.getAvgScore()),
+                        null));
+            }
+
+            DepartmentSummary summary = new DepartmentSummary();
+            summary.setDepartmentId(departmentId);
+            summary.setAverageScore(ScoringEngine.round(departmentAverage));
+            summary.setTopPerformers(topPerformers);
+            summary.setLowPerformers(lowPerformers);
+            summary.setEmployeeCount(employeeCount);
+            return summary;
+        }
+
+        private void offerLowPerformer(PeerScoreRollupRepository.DepartmentResult result) {
+            if (lowPerformerThreshold != null && result.getAvgScore() >= lowPerformerThreshold) {
+                return;
+            }
+            low.add(result);
+            if (low.size() > lowPerformerCount) {
+                low.poll();
+            }
+        }
+
+        private List<PeerScoreRollupRepository.DepartmentResult> descending(
+                PriorityQueue<PeerScoreRollupRepository.DepartmentResult> heap) {
+            List<PeerScoreRollupRepository.DepartmentResult> sorted = new ArrayList<>(heap);
+            sorted.sort(BY_SCORE.reversed());
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.service;
+
+import com.example.config.ReportCacheConfig;
+import com.example.dto.PeerComparison;
+import com.example.model.PerformanceReview;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Evicts exactly the cached reports a batch of saved reviews can change
+@Component
+public class ReportCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    // Paginated reports and trends are cached under many keys per employee; each employee
+    // tracks theirs, registered before the load reads anything, so a write evicts them directly
+    private final Map<String, Set<PageKey>> pageKeys = new ConcurrentHashMap<>();
+    // Peer comparisons are cached by employee id, but a review changes every comparison in its
+    // department and role; each cohort tracks its cached keys so they are evicted directly
+    private final Map<Cohort, PeerKeys> peerKeys = new ConcurrentHashMap<>();
+
+    public ReportCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void evict(List<PerformanceReview> reviews) {
+        if (reviews.isEmpty()) {
+            return;
+        }
+
+        Set<String> employeeIds = new HashSet<>();
+        Set<String> departmentIds = new HashSet<>();
+        Set<Cohort> cohorts = new HashSet<>();
+        for (PerformanceReview review : reviews) {
+            employeeIds.add(review.getEmployeeId());
+            departmentIds.add(review.getEmployeeInfo().getDepartmentId());
+            cohorts.add(new Cohort(review.getEmployeeInfo().getDepartmentId(), review.getEmployeeInfo().getRole()));
+        }
+
+        // Direct evictions also drop any in-flight load of the same key, so a load that
+        // started before the write cannot populate the entry afterwards
+        Map<Object, Object> performance = nativeCache(ReportCacheConfig.EMPLOYEE_PERFORMANCE);
+        for (String employeeId : employeeIds) {
+            performance.remove(employeeId);
+            Set<PageKey> keys = pageKeys.get(employeeId);
+            if (keys != null) {
+                evictPages(keys, performance);
+            }
+        }
+
+        // Every peer in the employee's department and role sees a new peer average and rank
+        Map<Object, Object> peers = nativeCache(ReportCacheConfig.PEER_COMPARISON);
+        employeeIds.forEach(peers::remove);
+        for (Cohort cohort : cohorts) {
+            PeerKeys keys = peerKeys.get(cohort);
+            if (keys != null) {
+                evictPeers(keys, peers);
+            }
+        }
+
+        Map<Object, Object> departments = nativeCache(ReportCacheConfig.DEPARTMENT_SUMMARY);
+        departmentIds.forEach(departments::remove);
+    }
+
+    // For changes that touch scores across employees, such as a department being re-scored
+    public void evictAll() {
+        peerKeys.values().forEach(keys -> keys.generation.incrementAndGet());
+        // Untracked before the caches are cleared, so a page tracked meanwhile stays tracked
+        pageKeys.values().forEach(Set::clear);
+        for (String name : List.of(ReportCacheConfig.EMPLOYEE_PERFORMANCE, ReportCacheConfig.PEER_COMPARISON,
+                ReportCacheConfig.DEPARTMENT_SUMMARY)) {
+            nativeCache(name).clear();
+        }
+        peerKeys.values().forEach(keys -> keys.employeeIds.clear());
+    }
+
+    // Key of a paginated report or trends view of an employee, by its position in the view
+    public static PageKey pageKey(String employeeId, Object... position) {
+        return new PageKey(employeeId, Arrays.asList(position));
+    }
+
+    // Called by a page load before it reads anything, so a review saved later evicts the page
+    // and one saved earlier is already in what the load reads
+    public void trackPage(PageKey key) {
+        pageKeys.computeIfAbsent(key.employeeId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    // Read by a peer comparison load before it reads the cohort's ranking, and passed back to
+    // trackPeerComparison once it is built
+    public long peerGeneration(String departmentId, String role) {
+        return peerKeys(new Cohort(departmentId, role)).generation.get();
+    }
+
+    // Registers a peer comparison that is being cached under its employee id. A review saved to
+    // the cohort since the load began moved the generation on and may have missed this key, so
+    // the key is evicted here instead, dropping the in-flight load rather than caching it
+    public void trackPeerComparison(PeerComparison comparison, long generation) {
+        PeerKeys keys = peerKeys(new Cohort(comparison.getDepartmentId(), comparison.getRole()));
+        keys.employeeIds.add(comparison.getEmployeeId());
+        if (keys.generation.get() != generation) {
+            keys.employeeIds.remove(comparison.getEmployeeId());
+            nativeCache(ReportCacheConfig.PEER_COMPARISON).remove(comparison.getEmployeeId());
+        }
+    }
+
+    // The generation moves before the keys are read, so a load tracking its key concurrently
+    // either is evicted here or sees the new generation
+    private static void evictPeers(PeerKeys keys, Map<Object, Object> peers) {
+        keys.generation.incrementAndGet();
+        for (String employeeId : keys.employeeIds) {
+            keys.employeeIds.remove(employeeId);
+            peers.remove(employeeId);
+        }
+    }
+
+    // Each key leaves the set before its entry is removed, and a page tracked meanwhile stays
+    // for the next eviction
+    private static void evictPages(Set<PageKey> keys, Map<Object, Object> performance) {
+        for (PageKey key : keys) {
+            keys.remove(key);
+            performance.remove(key);
+        }
+    }
+
+    private PeerKeys peerKeys(Cohort cohort) {
+        return peerKeys.computeIfAbsent(cohort, c -> new PeerKeys());
+    }
+
+    private Map<Object, Object> nativeCache(String name) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(name), "Missing cache " + name);
+        return ((CaffeineCache) cache).getNativeCache().asMap();
+    }
+
+    private record Cohort(String departmentId, String role) {
+    }
+
+    public record PageKey(String employeeId, List<Object> position) {
+    }
+
+    private static final class PeerKeys {
+        private final AtomicLong generation = new AtomicLong();
+        private final Set<String> employeeIds = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.service;
+
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.example.model.ScoringWeights;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
+import com.example.repository.PerformanceReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Writes re-scored reviews for the backfill and keeps what is derived from their scores in
+// step. The aggregates are moved by each review's change in score as it is written rather
+// than rebuilt, so reviews recorded meanwhile keep their increments
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RescoreService {
+
+    private final PerformanceReviewRepository repository;
+    private final EmployeeScoreStatsRepository statsRepository;
+    private final PeerScoreRollupRepository rollupRepository;
+    private final PeerRankIndex peerRankIndex;
+    private final AnalyticsIndex analyticsIndex;
+    private final ReportCacheInvalidator cacheInvalidator;
+
+    // Writes re-scored reviews and moves the employee stats, rollups, loaded peer rankings and
+    // analytics index by each one's change in score; returns how many were written
+    public int applyScoreChanges(List<ScoreChange> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        int written = repository.updateOverallScores(changes);
+        if (written == changes.size()) {
+            statsRepository.applyScoreChanges(changes);
+            rollupRepository.applyScoreChanges(changes);
+            peerRankIndex.recordScoreChanges(changes);
+            analyticsIndex.recordScoreChanges(changes);
+        } else {
+            // Some reviews no longer held the score they were read with, so another re-score got
+            // to them first and which deltas are still owed is unknown; only these employees'
+            // aggregates are recomputed from their reviews
+            Set<String> employeeIds = changes.stream()
+                    .map(change -> change.review().getEmployeeId())
+                    .collect(Collectors.toSet());
+            log.warn("{} of {} re-scored reviews were changed concurrently, rebuilding the aggregates of {} employees",
+                    changes.size() - written, changes.size(), employeeIds.size());
+            statsRepository.rebuildFromReviews(employeeIds);
+            rollupRepository.rebuildFromReviews(employeeIds);
+            peerRankIndex.invalidateAll();
+            if (analyticsIndex.isEnabled()) {
+                analyticsIndex.recordScoreChanges(storedScores(changes));
+            }
+        }
+        return written;
+    }
+
+    // Each review as stored now, paired with the score it was read with, so the index rows are
+    // moved to whichever score won
+    private List<ScoreChange> storedScores(List<ScoreChange> changes) {
+        Map<String, Double> previousScores = new HashMap<>();
+        changes.forEach(change -> previousScores.put(change.review().getId(), change.previousScore()));
+        List<ScoreChange> stored = new ArrayList<>(changes.size());
+        for (PerformanceReview review : repository.findAllById(previousScores.keySet())) {
+            double previousScore = previousScores.get(review.getId());
+            if (review.getOverallScore() != previousScore) {
+                stored.add(new ScoreChange(review, previousScore));
+            }
+        }
+        return stored;
+    }
+
+    // The index rows move with each written score; reloading once re-scoring has finished also
+    // picks up reviews other instances saved meanwhile, and the report caches are cleared with it
+    public void reloadScores() {
+        if (analyticsIndex.isEnabled()) {
+            analyticsIndex.reload();
+        }
+        cacheInvalidator.evictAll();
+    }
+
+    // Scores each review with its weights and adds those whose score changed, updated in
+    // place, to changed along with their previous score. Reviews whose metrics cannot be
+    // scored are left as they are; returns how many there were
+    static int rescore(List<PerformanceReview> batch, Function<PerformanceReview, ScoringWeights> weights,
+                       List<ScoreChange> changed) {
+        int skipped = 0;
+        for (PerformanceReview review : batch) {
+            if (review.getMetrics() == null) {
+                skipped++;
+                continue;
+            }
+            double score;
+            try {
+                score = weights.apply(review).score(review.getMetrics());
+            } catch (IllegalArgumentException e) {
+                skipped++;
+                continue;
+            }
+            if (score != review.getOverallScore()) {
+                changed.add(new ScoreChange(review, review.getOverallScore()));
+                review.setOverallScore(score);
+            }
+        }
+        return skipped;
+    }
+}
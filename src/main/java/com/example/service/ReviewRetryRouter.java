@@ -0,0 +1,166 @@
+package com.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+// Where a failed review record goes next. Records that can never succeed (unreadable or
+// invalid) go straight to the dead-letter topic; anything else is republished to the next
+// retry topic, each with a longer delay, and dead-lettered once the attempts run out.
+// Dead-letter records carry the standard kafka_dlt-* headers: exception class, message and
+// stack trace, plus the original topic, partition, offset and timestamp.
+@Component
+public class ReviewRetryRouter implements ConsumerRecordRecoverer {
+
+    public static final String ATTEMPT_HEADER = "review-retry-attempt";
+    public static final String DUE_AT_HEADER = "review-retry-due-at";
+
+    private final String deadLetterTopic;
+    private final List<String> retryTopics;
+    private final Duration backoff;
+    private final double multiplier;
+    private final Duration maxBackoff;
+    private final MeterRegistry meterRegistry;
+    private final DeadLetterPublishingRecoverer publisher;
+
+    public ReviewRetryRouter(KafkaOperations<String, Object> reviewKafkaTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${kafka.topic.performance-reviews}") String topic,
+                             @Value("${kafka.retry.attempts:6}") int attempts,
+                             @Value("${kafka.retry.backoff:10s}") Duration backoff,
+                             @Value("${kafka.retry.multiplier:2.0}") double multiplier,
+                             @Value("${kafka.retry.max-backoff:5m}") Duration maxBackoff) {
+        this.deadLetterTopic = topic + "-dlt";
+        this.retryTopics = new ArrayList<>(attempts);
+        for (int i = 0; i < attempts; i++) {
+            retryTopics.add(topic + "-retry-" + i);
+        }
+        this.backoff = backoff;
+        this.multiplier = multiplier;
+        this.maxBackoff = maxBackoff;
+        this.meterRegistry = meterRegistry;
+
+        // Partition -1 lets the producer partition by key, so an employee's records stay together
+        this.publisher = new DeadLetterPublishingRecoverer(reviewKafkaTemplate,
+                (record, exception) -> new TopicPartition(destination(record, exception), -1));
+        this.publisher.setHeadersFunction(retryHeaders(backoff, multiplier, maxBackoff));
+        // Keep the topic, partition and offset the record was first consumed from across hops
+        this.publisher.setAppendOriginalHeaders(false);
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        publisher.accept(record, exception);
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    public String[] getRetryTopics() {
+        return retryTopics.toArray(new String[0]);
+    }
+
+    // When a retried record may be processed again; records from the main topic are due at once
+    public long dueAt(ConsumerRecord<?, ?> record) {
+        String dueAt = header(record, DUE_AT_HEADER);
+        return dueAt == null ? 0 : Long.parseLong(dueAt);
+    }
+
+    // Idempotency key for a record that arrived without one: the position it was first consumed
+    // from, so a redelivery, or a retry of it, maps to the review already stored. The timestamp
+    // tells apart records at the same offset of a topic that was deleted and recreated
+    public static String sourceKey(ConsumerRecord<?, ?> record) {
+        Header topic = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        if (topic == null) {
+            return record.topic() + "-" + record.partition() + "@" + record.offset() + ":" + record.timestamp();
+        }
+        return new String(topic.value(), StandardCharsets.UTF_8)
+                + "-" + ByteBuffer.wrap(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION).value()).getInt()
+                + "@" + ByteBuffer.wrap(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET).value()).getLong()
+                + ":" + ByteBuffer.wrap(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TIMESTAMP).value()).getLong();
+    }
+
+    private String destination(ConsumerRecord<?, ?> record, Exception exception) {
+        int attempt = attempt(record);
+        if (!isRetryable(exception) || attempt >= retryTopics.size()) {
+            meterRegistry.counter("reviews.kafka.dead.letters", "cause", rootCause(exception).getClass().getSimpleName())
+                    .increment();
+            return deadLetterTopic;
+        }
+        meterRegistry.counter("reviews.kafka.retries", "attempt", String.valueOf(attempt + 1)).increment();
+        return retryTopics.get(attempt);
+    }
+
+    // Built from the settings alone, so the constructor hands the publisher nothing that
+    // reaches back into the router before it is initialized
+    private static BiFunction<ConsumerRecord<?, ?>, Exception, Headers> retryHeaders(
+            Duration backoff, double multiplier, Duration maxBackoff) {
+        return (record, exception) -> {
+            int attempt = attempt(record) + 1;
+            long dueAt = System.currentTimeMillis() + delay(backoff, multiplier, maxBackoff, attempt).toMillis();
+            Headers headers = new RecordHeaders();
+            headers.add(ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+            headers.add(DUE_AT_HEADER, String.valueOf(dueAt).getBytes(StandardCharsets.UTF_8));
+            return headers;
+        };
+    }
+
+    Duration delay(int attempt) {
+        return delay(backoff, multiplier, maxBackoff, attempt);
+    }
+
+    // backoff, backoff * multiplier, backoff * multiplier^2, ... capped at maxBackoff
+    private static Duration delay(Duration backoff, double multiplier, Duration maxBackoff, int attempt) {
+        double millis = backoff.toMillis() * Math.pow(multiplier, attempt - 1);
+        return millis >= maxBackoff.toMillis() ? maxBackoff : Duration.ofMillis((long) millis);
+    }
+
+    private static int attempt(ConsumerRecord<?, ?> record) {
+        String attempt = header(record, ATTEMPT_HEADER);
+        return attempt == null ? 0 : Integer.parseInt(attempt);
+    }
+
+    // The copied headers of earlier hops come first, so the last value is the current one
+    private static String header(ConsumerRecord<?, ?> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static boolean isRetryable(Exception exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException
+                    || cause instanceof JsonProcessingException
+                    || cause instanceof IllegalArgumentException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Throwable rootCause(Throwable exception) {
+        Throwable cause = exception;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.service;
+
+import com.example.dto.PerformanceReviewRequest;
+import com.example.model.EmployeeInfo;
+import com.example.model.PerformanceMetrics;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Compact binary encoding of PerformanceReviewRequest for Kafka, read straight from the
+// record's bytes. A message starts with MAGIC, which cannot start a UTF-8 JSON document, and
+// the layout version; consumers read anything else as JSON, so producers can switch one at a time.
+//
+// Version 1, big-endian:
+//   employeeId, reviewerId                 string
+//   metrics                                presence byte; goalAchievement, skillLevel and teamwork
+//                                          as float64, then a varint count of additional
+//                                          (name string, float64) pairs
+//   employeeInfo                           presence byte; departmentId, role strings
+//   reviewDate, comments, idempotencyKey   string
+// A string is a varint of its UTF-8 length plus one, 0 meaning null, followed by the bytes
+public final class ReviewWireFormat {
+
+    // A UTF-8 continuation byte, so never the first byte of a JSON text
+    public static final byte MAGIC = (byte) 0xB1;
+    public static final byte VERSION = 1;
+
+    private ReviewWireFormat() {
+    }
+
+    public static boolean isBinary(byte[] message) {
+        return message.length > 0 && message[0] == MAGIC;
+    }
+
+    public static byte[] encode(PerformanceReviewRequest request) {
+        Output out = new Output();
+        out.put(MAGIC);
+        out.put(VERSION);
+        out.putString(request.getEmployeeId());
+        out.putString(request.getReviewerId());
+
+        PerformanceMetrics metrics = request.getMetrics();
+        out.put((byte) (metrics == null ? 0 : 1));
+        if (metrics != null) {
+            out.putDouble(metrics.getGoalAchievement());
+            out.putDouble(metrics.getSkillLevel());
+            out.putDouble(metrics.getTeamwork());
+            Map<String, Double> additional = metrics.getAdditional();
+            out.putVarint(additional == null ? 0 : additional.size());
+            if (additional != null) {
+                for (Map.Entry<String, Double> metric : additional.entrySet()) {
+                    if (metric.getValue() == null) {
+                        throw new IllegalArgumentException(metric.getKey() + " must be between 0 and 100");
+                    }
+                    out.putString(metric.getKey());
+                    out.putDouble(metric.getValue());
+                }
+            }
+        }
+
+        EmployeeInfo info = request.getEmployeeInfo();
+        out.put((byte) (info == null ? 0 : 1));
+        if (info != null) {
+            out.putString(info.getDepartmentId());
+            out.putString(info.getRole());
+        }
+
+        out.putString(request.getReviewDate());
+        out.putString(request.getComments());
+        out.putString(request.getIdempotencyKey());
+        return out.toByteArray();
+    }
+
+    // Throws IllegalArgumentException for a truncated or malformed message, so it is
+    // dead-lettered rather than retried
+    public static PerformanceReviewRequest decode(byte[] message) {
+        ByteBuffer in = ByteBuffer.wrap(message);
+        try {
+            if (in.get() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary review message");
+            }
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported review message version " + version);
+            }
+
+            PerformanceReviewRequest request = new PerformanceReviewRequest();
+            request.setEmployeeId(getString(in));
+            request.setReviewerId(getString(in));
+            if (in.get() != 0) {
+                PerformanceMetrics metrics = new PerformanceMetrics(in.getDouble(), in.getDouble(), in.getDouble());
+                int count = getVarint(in);
+                if (count > 0) {
+                    // Each pair takes at least 9 bytes, which bounds what garbage can allocate
+                    if (count > in.remaining() / 9) {
+                        throw new BufferUnderflowException();
+                    }
+                    Map<String, Double> additional = new HashMap<>((int) (count / 0.75f) + 1);
+                    for (int i = 0; i < count; i++) {
+                        additional.put(getString(in), in.getDouble());
+                    }
+                    metrics.setAdditional(additional);
+                }
+                request.setMetrics(metrics);
+            }
+            if (in.get() != 0) {
+                request.setEmployeeInfo(new EmployeeInfo(getString(in), getString(in)));
+            }
+            request.setReviewDate(getString(in));
+            request.setComments(getString(in));
+            request.setIdempotencyKey(getString(in));
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after review message");
+            }
+            return request;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated review message", e);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = getVarint(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                // The fifth byte holds the top four bits; anything above them would be dropped
+                // or, in the sign bit, turn a length negative
+                if (value < 0 || (shift == 28 && b > 0x0F)) {
+                    throw new IllegalArgumentException("Malformed length in review message");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed length in review message");
+    }
+
+    // Growable big-endian buffer; producers encode once per message, so it favours simplicity
+    private static final class Output {
+        private byte[] bytes = new byte[128];
+        private int size;
+
+        void put(byte b) {
+            ensure(1);
+            bytes[size++] = b;
+        }
+
+        void putDouble(double value) {
+            long bits = Double.doubleToLongBits(value);
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (bits >>> shift);
+            }
+        }
+
+        void putVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length + 1);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.service;
+
+import com.example.model.EmployeeInfo;
+import com.example.model.EmployeeScoreStats;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.example.repository.PeerScoreRollupRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Every stored review as one row of primitive columns: employee ordinal, department and role
+// codes, epoch day and score. Rows are appended in the order reviews were stored and chained
+// newest first per employee and per department, so a query walks only the rows it needs
+class ScoreColumns {
+
+    private static final int NONE = -1;
+
+    private final Dictionary employees = new Dictionary();
+    private final Dictionary departments = new Dictionary();
+    private final Dictionary roles = new Dictionary();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private int[] employee;
+    private int[] department;
+    private int[] role;
+    private int[] epochDay;
+    private double[] score;
+    // Previous row of the same employee, and of the same department, or NONE
+    private int[] previousOfEmployee;
+    private int[] previousInDepartment;
+    // Newest row per employee ordinal and per department code
+    private int[] employeeHead = new int[0];
+    private int[] departmentHead = new int[0];
+
+    ScoreColumns(int capacity) {
+        capacity = Math.max(capacity, 16);
+        employee = new int[capacity];
+        department = new int[capacity];
+        role = new int[capacity];
+        epochDay = new int[capacity];
+        score = new double[capacity];
+        previousOfEmployee = new int[capacity];
+        previousInDepartment = new int[capacity];
+    }
+
+    void append(PerformanceReview review) {
+        EmployeeInfo info = review.getEmployeeInfo();
+        lock.writeLock().lock();
+        try {
+            if (size == score.length) {
+                grow();
+            }
+            int row = size;
+            int employeeOrdinal = employees.code(review.getEmployeeId());
+            int departmentCode = departments.code(info == null ? null : info.getDepartmentId());
+            if (employeeOrdinal == employeeHead.length) {
+                employeeHead = extend(employeeHead);
+            }
+            if (departmentCode == departmentHead.length) {
+                departmentHead = extend(departmentHead);
+            }
+
+            employee[row] = employeeOrdinal;
+            department[row] = departmentCode;
+            role[row] = roles.code(info == null ? null : info.getRole());
+            epochDay[row] = (int) review.getReviewDate().toEpochDay();
+            score[row] = review.getOverallScore();
+            previousOfEmployee[row] = employeeHead[employeeOrdinal];
+            previousInDepartment[row] = departmentHead[departmentCode];
+            employeeHead[employeeOrdinal] = row;
+            departmentHead[departmentCode] = row;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves the row of a re-scored review to its new score. Rows carry no review id, so the
+    // row is found by employee, date, department, role and previous score; rows alike in all
+    // of these are interchangeable, and any one of them is moved. Returns false when none is
+    boolean updateScore(ScoreChange change) {
+        PerformanceReview review = change.review();
+        EmployeeInfo info = review.getEmployeeInfo();
+        int day = (int) review.getReviewDate().toEpochDay();
+        lock.writeLock().lock();
+        try {
+            int ordinal = employees.find(review.getEmployeeId());
+            if (ordinal == NONE) {
+                return false;
+            }
+            int departmentCode = departments.find(info == null ? null : info.getDepartmentId());
+            int roleCode = roles.find(info == null ? null : info.getRole());
+            for (int row = employeeHead[ordinal]; row != NONE; row = previousOfEmployee[row]) {
+                if (epochDay[row] == day && score[row] == change.previousScore()
+                        && department[row] == departmentCode && role[row] == roleCode) {
+                    score[row] = review.getOverallScore();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Totals plus the department and role of the employee's latest review; day and month
+    // buckets are left empty
+    Optional<EmployeeScoreStats> employeeStats(String employeeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = employees.find(employeeId);
+            if (ordinal == NONE) {
+                return Optional.empty();
+            }
+            int head = employeeHead[ordinal];
+            double scoreSum = 0;
+            long reviewCount = 0;
+            int latestDay = Integer.MIN_VALUE;
+            for (int row = head; row != NONE; row = previousOfEmployee[row]) {
+                scoreSum += score[row];
+                reviewCount++;
+                latestDay = Math.max(latestDay, epochDay[row]);
+            }
+
+            EmployeeScoreStats stats = new EmployeeScoreStats();
+            stats.setEmployeeId(employeeId);
+            stats.setReviewCount(reviewCount);
+            stats.setScoreSum(scoreSum);
+            stats.setDepartmentId(departments.value(department[head]));
+            stats.setRole(roles.value(role[head]));
+            stats.setLatestReviewDate(LocalDate.ofEpochDay(latestDay));
+            return Optional.of(stats);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only the employee id and month buckets are set
+    Optional<EmployeeScoreStats> monthlyStats(String employeeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = employees.find(employeeId);
+            if (ordinal == NONE) {
+                return Optional.empty();
+            }
+            Map<String, EmployeeScoreStats.ScoreBucket> months = new HashMap<>();
+            for (int row = employeeHead[ordinal]; row != NONE; row = previousOfEmployee[row]) {
+                EmployeeScoreStats.ScoreBucket bucket = months.computeIfAbsent(
+                        YearMonth.from(LocalDate.ofEpochDay(epochDay[row])).toString(),
+                        month -> new EmployeeScoreStats.ScoreBucket());
+                bucket.setSum(bucket.getSum() + score[row]);
+                bucket.setCount(bucket.getCount() + 1);
+            }
+
+            EmployeeScoreStats stats = new EmployeeScoreStats();
+            stats.setEmployeeId(employeeId);
+            stats.setMonthlyBuckets(months);
+            return Optional.of(stats);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Average of the employee's reviews dated from through to, or 0 when there are none
+    double averageScoreBetween(String employeeId, LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            int ordinal = employees.find(employeeId);
+            if (ordinal == NONE) {
+                return 0.0;
+            }
+            double sum = 0;
+            int count = 0;
+            for (int row = employeeHead[ordinal]; row != NONE; row = previousOfEmployee[row]) {
+                if (epochDay[row] >= fromDay && epochDay[row] <= toDay) {
+                    sum += score[row];
+                    count++;
+                }
+            }
+            return count == 0 ? 0.0 : sum / count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One result per employee with reviews in the department, as the rollup aggregation returns
+    List<PeerScoreRollupRepository.DepartmentResult> departmentResults(String departmentId) {
+        lock.readLock().lock();
+        try {
+            int departmentCode = departments.find(departmentId);
+            if (departmentCode == NONE) {
+                return List.of();
+            }
+            EmployeeTotals totals = new EmployeeTotals();
+            for (int row = departmentHead[departmentCode]; row != NONE; row = previousInDepartment[row]) {
+                totals.add(employee[row], score[row], row);
+            }
+
+            List<PeerScoreRollupRepository.DepartmentResult> results = new ArrayList<>(totals.size);
+            for (int slot = 0; slot < totals.keys.length; slot++) {
+                if (totals.keys[slot] != NONE) {
+                    results.add(new PeerScoreRollupRepository.DepartmentResult(
+                            employees.value(totals.keys[slot]),
+                            totals.sums[slot] / totals.counts[slot],
+                            roles.value(role[totals.latestRows[slot]])));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void grow() {
+        int capacity = score.length * 2;
+        employee = Arrays.copyOf(employee, capacity);
+        department = Arrays.copyOf(department, capacity);
+        role = Arrays.copyOf(role, capacity);
+        epochDay = Arrays.copyOf(epochDay, capacity);
+        score = Arrays.copyOf(score, capacity);
+        previousOfEmployee = Arrays.copyOf(previousOfEmployee, capacity);
+        previousInDepartment = Arrays.copyOf(previousInDepartment, capacity);
+    }
+
+    // Room for one more code, whose chain starts out empty
+    private static int[] extend(int[] heads) {
+        int[] extended = Arrays.copyOf(heads, Math.max(16, heads.length * 2));
+        Arrays.fill(extended, heads.length, extended.length, NONE);
+        return extended;
+    }
+
+    // Dense codes for the distinct values of a column, in first-seen order
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int find(String value) {
+            return codes.getOrDefault(value, NONE);
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+    }
+
+    // Score sums per employee ordinal over the rows one query walks, in an open-addressing
+    // table that grows with the number of distinct employees rather than rows
+    private static class EmployeeTotals {
+        private int[] keys;
+        private double[] sums;
+        private int[] counts;
+        // First row seen per employee, which is their latest when walking a chain
+        private int[] latestRows;
+        private int size;
+
+        EmployeeTotals() {
+            allocate(16);
+        }
+
+        void add(int key, double value, int row) {
+            int slot = slot(key);
+            if (keys[slot] == NONE) {
+                if ((size + 1) * 2 > keys.length) {
+                    rehash();
+                    slot = slot(key);
+                }
+                keys[slot] = key;
+                latestRows[slot] = row;
+                size++;
+            }
+            sums[slot] += value;
+            counts[slot]++;
+        }
+
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] != NONE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            double[] oldSums = sums;
+            int[] oldCounts = counts;
+            int[] oldLatestRows = latestRows;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != NONE) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    sums[slot] = oldSums[i];
+                    counts[slot] = oldCounts[i];
+                    latestRows[slot] = oldLatestRows[i];
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, NONE);
+            sums = new double[capacity];
+            counts = new int[capacity];
+            latestRows = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.service;
+
+import com.example.model.ScoringPolicy;
+import com.example.model.ScoringWeights;
+import com.example.repository.ScoringPolicyRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+// Compiled scoring weights per department. A policy is read and compiled on first use, then
+// reloaded after the refresh interval so changes saved by other instances are picked up
+@Component
+public class ScoringPolicies {
+
+    private final ScoringPolicyRepository repository;
+    private final AsyncLoadingCache<String, ScoringWeights> weights;
+    private final Duration refreshInterval;
+
+    public ScoringPolicies(ScoringPolicyRepository repository,
+                           @Value("${scoring.policies.max-departments:1000}") long maxDepartments,
+                           @Value("${scoring.policies.refresh-interval:1m}") Duration refreshInterval) {
+        this.repository = repository;
+        this.refreshInterval = refreshInterval;
+        this.weights = Caffeine.newBuilder()
+                .maximumSize(maxDepartments)
+                .expireAfterWrite(refreshInterval)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .buildAsync(this::load);
+    }
+
+    // The department's weights, or the default weighting when it has no policy
+    public ScoringWeights forDepartment(String departmentId) {
+        if (departmentId == null) {
+            return ScoringWeights.DEFAULT;
+        }
+        return weights.get(departmentId).join();
+    }
+
+    // How long other instances may keep scoring with weights changed here
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public List<ScoringPolicy> findAll() {
+        return repository.findAll();
+    }
+
+    // Throws IllegalArgumentException, before anything is saved, if the weights do not compile
+    public ScoringPolicy save(String departmentId, Map<String, Double> policyWeights) {
+        ScoringWeights.compile(policyWeights);
+        ScoringPolicy policy = repository.save(new ScoringPolicy(departmentId, policyWeights, Instant.now()));
+        weights.synchronous().invalidate(departmentId);
+        return policy;
+    }
+
+    public void delete(String departmentId) {
+        repository.deleteById(departmentId);
+        weights.synchronous().invalidate(departmentId);
+    }
+
+    private ScoringWeights load(String departmentId) {
+        return repository.findById(departmentId)
+                .map(policy -> ScoringWeights.compile(policy.getWeights()))
+                .orElse(ScoringWeights.DEFAULT);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.service;
+
+import java.util.concurrent.TimeUnit;
+
+// Paces callers on any number of threads to a combined rate by handing out start times;
+// unused time is not banked, so an idle spell never allows a burst
+class Throttle {
+
+    private final long nanosPerPermit;
+    private long next = System.nanoTime();
+
+    // A rate of 0 or less never waits
+    Throttle(int permitsPerSecond) {
+        this.nanosPerPermit = permitsPerSecond <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        if (nanosPerPermit == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            next = Math.max(next, now);
+            wait = next - now;
+            next += nanosPerPermit * permits;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
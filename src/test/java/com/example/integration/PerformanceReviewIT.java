@@ -3,6 +3,9 @@ package com.example.integration;
 import com.example.dto.*;
 import com.example.model.EmployeeInfo;
 import com.example.model.PerformanceMetrics;
+import com.example.model.PerformanceReview;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
 import com.example.repository.PerformanceReviewRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +17,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,9 +35,17 @@ public class PerformanceReviewIT {
     @Autowired
     private PerformanceReviewRepository repository;
 
+    @Autowired
+    private EmployeeScoreStatsRepository statsRepository;
+
+    @Autowired
+    private PeerScoreRollupRepository rollupRepository;
+
     @BeforeEach
     void setUp() {
         repository.deleteAll();
+        statsRepository.deleteAll();
+        rollupRepository.deleteAll();
     }
 
     @Test
@@ -139,6 +152,46 @@ public class PerformanceReviewIT {
         assertNull(lowPerformers.get(1).getRank());
     }
 
+    @Test
+    void submitBatch_ReturnsPerItemResults() {
+        // Given - one valid review and one missing its reviewer
+        PerformanceReviewRequest valid = new PerformanceReviewRequest();
+        valid.setEmployeeId("emp1");
+        valid.setReviewerId("reviewer1");
+        valid.setMetrics(new PerformanceMetrics(80.0, 80.0, 80.0));
+        valid.setEmployeeInfo(new EmployeeInfo("dev_dept", "developer"));
+        PerformanceReviewRequest invalid = new PerformanceReviewRequest();
+        invalid.setEmployeeId("emp2");
+        invalid.setMetrics(new PerformanceMetrics(80.0, 80.0, 80.0));
+        invalid.setEmployeeInfo(new EmployeeInfo("dev_dept", "developer"));
+
+        // When
+        ResponseEntity<Map> response = restTemplate.postForEntity("/reviews/batch", List.of(valid, invalid), Map.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+        assertEquals(2, results.size());
+        assertEquals("submitted", results.get(0).get("status"));
+        assertNotNull(results.get(0).get("reviewId"));
+        assertEquals("rejected", results.get(1).get("status"));
+        assertEquals(1, response.getBody().get("submitted"));
+        assertEquals(1L, repository.count());
+    }
+
+    @Test
+    void readQueries_LoadOnlyProjectedFields() {
+        createAndSubmitReview("emp1", 80.0);
+
+        try (Stream<PerformanceReview> history = repository.streamByEmployeeIdOrderByReviewDateDesc("emp1")) {
+            PerformanceReview entry = history.findFirst().orElseThrow();
+            assertEquals("Test review", entry.getComments());
+            assertEquals("dev_dept", entry.getEmployeeInfo().getDepartmentId());
+            assertNull(entry.getEmployeeInfo().getRole());
+            assertNull(entry.getReviewerId());
+        }
+    }
+
     private void createAndSubmitReview(String employeeId, double score) {
         PerformanceMetrics metrics = new PerformanceMetrics(score, score, score);
         EmployeeInfo employeeInfo = new EmployeeInfo();
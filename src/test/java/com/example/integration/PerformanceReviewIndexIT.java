@@ -0,0 +1,127 @@
+package com.example.integration;
+
+import com.example.model.EmployeeInfo;
+import com.example.model.PeerScoreRollup;
+import com.example.model.PerformanceMetrics;
+import com.example.model.PerformanceReview;
+import com.example.repository.PerformanceReviewRepository;
+import com.example.service.IndexManagementService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Fails if the hot queries regress to collection scans
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.data.mongodb.database=test",
+    "spring.mongodb.embedded.version=4.0.2"
+})
+public class PerformanceReviewIndexIT {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PerformanceReviewRepository repository;
+
+    @Autowired
+    private IndexManagementService indexManagementService;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        indexManagementService.ensureIndexes();
+
+        List<PerformanceReview> reviews = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            PerformanceReview review = new PerformanceReview();
+            review.setEmployeeId("emp" + (i % 20));
+            review.setReviewerId("reviewer1");
+            review.setReviewDate(LocalDate.now().minusDays(i));
+            review.setMetrics(new PerformanceMetrics(80, 80, 80));
+            review.setEmployeeInfo(new EmployeeInfo("dept" + (i % 4), "role" + (i % 2)));
+            review.setComments("Test review");
+            review.calculateOverallScore();
+            reviews.add(review);
+        }
+        repository.saveAll(reviews);
+    }
+
+    @Test
+    void employeeHistoryQuery_UsesIndex() {
+        Document plan = explainFind(reviewCollection(),
+            new Document("employeeId", "emp1"), new Document("reviewDate", -1));
+
+        List<String> stages = stages(plan);
+        assertTrue(stages.contains("IXSCAN"), "Expected an index scan but got " + stages);
+        assertFalse(stages.contains("COLLSCAN"), "Employee history query regressed to " + stages);
+        assertFalse(stages.contains("SORT"), "Employee history should be sorted by the index, got " + stages);
+    }
+
+    @Test
+    void reviewDateRangeQuery_UsesIndex() {
+        Document filter = new Document("employeeId", "emp1")
+            .append("reviewDate", new Document("$gte", Date.valueOf(LocalDate.now().minusMonths(3)))
+                .append("$lte", Date.valueOf(LocalDate.now())));
+
+        List<String> stages = stages(explainFind(reviewCollection(), filter, null));
+        assertFalse(stages.contains("COLLSCAN"), "Review date range query regressed to " + stages);
+    }
+
+    @Test
+    void peerRollupLookup_UsesIndex() {
+        Document plan = explainFind(mongoTemplate.getCollectionName(PeerScoreRollup.class),
+            new Document("departmentId", "dept1").append("role", "role1"), null);
+
+        List<String> stages = stages(plan);
+        assertFalse(stages.contains("COLLSCAN"), "Peer rollup lookup regressed to " + stages);
+    }
+
+    private String reviewCollection() {
+        return mongoTemplate.getCollectionName(PerformanceReview.class);
+    }
+
+    private Document explainFind(String collection, Document filter, Document sort) {
+        Document find = new Document("find", collection).append("filter", filter);
+        if (sort != null) {
+            find.append("sort", sort);
+        }
+        return mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    // Collects every winning-plan stage name, wherever the server version nests the plan
+    private List<String> stages(Object node) {
+        List<String> stages = new ArrayList<>();
+        collectStages(node, stages);
+        return stages;
+    }
+
+    private void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            for (String key : document.keySet()) {
+                if (key.equals("rejectedPlans")) {
+                    continue;
+                }
+                Object value = document.get(key);
+                if (key.equals("stage") && value instanceof String stage) {
+                    stages.add(stage);
+                } else {
+                    collectStages(value, stages);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collectStages(item, stages));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.service;
+
+import com.example.model.AggregateVersion;
+import com.example.repository.AggregateVersionRepository;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AggregateRebuildServiceTest {
+
+    @Mock
+    private EmployeeScoreStatsRepository statsRepository;
+
+    @Mock
+    private PeerScoreRollupRepository rollupRepository;
+
+    @Mock
+    private AggregateVersionRepository versionRepository;
+
+    @Mock
+    private PeerRankIndex peerRankIndex;
+
+    @InjectMocks
+    private AggregateRebuildService aggregateRebuildService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(aggregateRebuildService, "rebuildOnStartup", true);
+    }
+
+    @Test
+    void start_WithoutMarker_RebuildsStatsAndRecordsVersion() {
+        when(versionRepository.findById(AggregateRebuildService.EMPLOYEE_STATS)).thenReturn(Optional.empty());
+        when(versionRepository.findById(AggregateRebuildService.PEER_ROLLUPS)).thenReturn(Optional.of(
+                new AggregateVersion(AggregateRebuildService.PEER_ROLLUPS,
+                        AggregateRebuildService.PEER_ROLLUPS_VERSION, Instant.now())));
+        // Stats written by live traffic must not pass for a completed rebuild
+        when(statsRepository.count()).thenReturn(5L);
+
+        aggregateRebuildService.start();
+
+        verify(statsRepository).rebuildFromReviews();
+        verify(rollupRepository, never()).rebuildFromReviews();
+        ArgumentCaptor<AggregateVersion> marker = ArgumentCaptor.forClass(AggregateVersion.class);
+        verify(versionRepository).save(marker.capture());
+        assertEquals(AggregateRebuildService.EMPLOYEE_STATS, marker.getValue().getAggregate());
+        assertEquals(AggregateRebuildService.EMPLOYEE_STATS_VERSION, marker.getValue().getVersion());
+        assertTrue(aggregateRebuildService.isRunning());
+    }
+
+    @Test
+    void start_WithOutdatedRollupMarker_RebuildsRollupsAndInvalidatesRanks() {
+        when(versionRepository.findById(AggregateRebuildService.EMPLOYEE_STATS)).thenReturn(Optional.of(
+                new AggregateVersion(AggregateRebuildService.EMPLOYEE_STATS,
+                        AggregateRebuildService.EMPLOYEE_STATS_VERSION, Instant.now())));
+        when(versionRepository.findById(AggregateRebuildService.PEER_ROLLUPS)).thenReturn(Optional.of(
+                new AggregateVersion(AggregateRebuildService.PEER_ROLLUPS, 0, Instant.now())));
+        when(rollupRepository.count()).thenReturn(5L);
+
+        aggregateRebuildService.start();
+
+        verify(statsRepository, never()).rebuildFromReviews();
+        verify(rollupRepository).rebuildFromReviews();
+        verify(peerRankIndex).invalidateAll();
+        verify(versionRepository).save(argThat(marker -> AggregateRebuildService.PEER_ROLLUPS.equals(marker.getAggregate())
+                && marker.getVersion() == AggregateRebuildService.PEER_ROLLUPS_VERSION));
+    }
+
+    @Test
+    void start_WithCurrentMarkers_SkipsRebuild() {
+        when(versionRepository.findById(AggregateRebuildService.EMPLOYEE_STATS)).thenReturn(Optional.of(
+                new AggregateVersion(AggregateRebuildService.EMPLOYEE_STATS,
+                        AggregateRebuildService.EMPLOYEE_STATS_VERSION, Instant.now())));
+        when(versionRepository.findById(AggregateRebuildService.PEER_ROLLUPS)).thenReturn(Optional.of(
+                new AggregateVersion(AggregateRebuildService.PEER_ROLLUPS,
+                        AggregateRebuildService.PEER_ROLLUPS_VERSION, Instant.now())));
+
+        aggregateRebuildService.start();
+
+        verify(statsRepository, never()).rebuildFromReviews();
+        verify(rollupRepository, never()).rebuildFromReviews();
+        verify(versionRepository, never()).save(any());
+    }
+
+    @Test
+    void getPhase_RunsAfterIndexesAndBeforeKafkaListeners() {
+        assertTrue(aggregateRebuildService.getPhase() > IndexManagementService.PHASE);
+        assertTrue(aggregateRebuildService.getPhase() < AbstractMessageListenerContainer.DEFAULT_PHASE);
+    }
+}
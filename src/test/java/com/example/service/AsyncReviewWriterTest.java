@@ -0,0 +1,144 @@
+package com.example.service;
+
+import com.example.dto.PerformanceReviewRequest;
+import com.example.dto.SubmissionResponse;
+import com.example.model.PerformanceReview;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AsyncReviewWriterTest {
+
+    @Mock
+    private PerformanceReviewService performanceReviewService;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<PerformanceReview> saved = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private AsyncReviewWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(performanceReviewService.createReview(any())).thenAnswer(invocation -> new PerformanceReview());
+        // The first write blocks until released, so later reviews stay in the buffer
+        when(performanceReviewService.saveReviews(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<PerformanceReview> reviews = invocation.getArgument(0);
+            saved.addAll(reviews);
+            return reviews;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        writer.stop();
+    }
+
+    @Test
+    void submit_BufferFull_RejectsAndFlushesAcceptedReviewsOnStop() throws Exception {
+        // Given
+        writer = writer("reject");
+        writer.start();
+
+        // When - the first review is being written and the second fills the one-slot buffer
+        SubmissionResponse first = writer.submit(new PerformanceReviewRequest());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        SubmissionResponse second = writer.submit(new PerformanceReviewRequest());
+        SubmissionResponse third = writer.submit(new PerformanceReviewRequest());
+
+        // Then
+        assertEquals(AsyncReviewWriter.ACCEPTED, first.getStatus());
+        assertNotNull(first.getReviewId());
+        assertEquals(AsyncReviewWriter.ACCEPTED, second.getStatus());
+        assertEquals(AsyncReviewWriter.REJECTED, third.getStatus());
+        assertNull(third.getReviewId());
+        assertEquals(1.0, meterRegistry.get("reviews.async.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("reviews.async.rejected").counter().count());
+
+        release.countDown();
+        writer.stop();
+        assertEquals(List.of(first.getReviewId(), second.getReviewId()),
+            saved.stream().map(PerformanceReview::getId).toList());
+        assertEquals(0.0, meterRegistry.get("reviews.async.queue.depth").gauge().value());
+    }
+
+    @Test
+    void submit_BlockWhenFull_RejectsAfterTimeout() throws Exception {
+        // Given
+        writer = writer("block");
+        writer.start();
+        writer.submit(new PerformanceReviewRequest());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writer.submit(new PerformanceReviewRequest());
+
+        // When
+        long start = System.nanoTime();
+        SubmissionResponse blocked = writer.submit(new PerformanceReviewRequest());
+
+        // Then
+        assertEquals(AsyncReviewWriter.REJECTED, blocked.getStatus());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void submit_IdempotencyKeyAlreadyBuffered_ReturnsBufferedReviewId() throws Exception {
+        // Given
+        when(performanceReviewService.createReview(any())).thenAnswer(invocation -> {
+            PerformanceReview review = new PerformanceReview();
+            review.setIdempotencyKey(invocation.<PerformanceReviewRequest>getArgument(0).getIdempotencyKey());
+            return review;
+        });
+        writer = writer("reject");
+        writer.start();
+        writer.submit(new PerformanceReviewRequest());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        PerformanceReviewRequest request = new PerformanceReviewRequest();
+        request.setIdempotencyKey("client-key-1");
+
+        // When
+        SubmissionResponse accepted = writer.submit(request);
+        SubmissionResponse repeated = writer.submit(request);
+
+        // Then
+        assertEquals(AsyncReviewWriter.ACCEPTED, accepted.getStatus());
+        assertEquals(new SubmissionResponse(accepted.getReviewId(), SubmissionResponse.DUPLICATE), repeated);
+
+        release.countDown();
+        writer.stop();
+        assertEquals(2, saved.size());
+    }
+
+    @Test
+    void submit_NotStarted_Rejects() {
+        writer = writer("reject");
+
+        assertEquals(AsyncReviewWriter.REJECTED, writer.submit(new PerformanceReviewRequest()).getStatus());
+        verify(performanceReviewService, never()).saveReviews(anyList());
+    }
+
+    private AsyncReviewWriter writer(String whenFull) {
+        return new AsyncReviewWriter(performanceReviewService, meterRegistry, true, 1, 10, whenFull,
+                Duration.ofMillis(50), 0, Duration.ZERO, Duration.ofSeconds(5));
+    }
+}
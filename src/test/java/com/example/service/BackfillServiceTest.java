@@ -0,0 +1,129 @@
+package com.example.service;
+
+import com.example.model.BackfillCheckpoint;
+import com.example.model.EmployeeInfo;
+import com.example.model.PerformanceMetrics;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoringEngine;
+import com.example.model.ScoringWeights;
+import com.example.repository.BackfillCheckpointRepository;
+import com.example.repository.PerformanceReviewRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class BackfillServiceTest {
+
+    @Mock
+    private PerformanceReviewRepository reviewRepository;
+
+    @Mock
+    private BackfillCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ScoringPolicies scoringPolicies;
+
+    @Mock
+    private RescoreService rescoreService;
+
+    @InjectMocks
+    private BackfillService backfillService;
+
+    private static PerformanceReview review(String id, String departmentId, double goalAchievement, double overallScore) {
+        PerformanceReview review = new PerformanceReview();
+        review.setId(id);
+        review.setEmployeeInfo(new EmployeeInfo(departmentId, null));
+        review.setMetrics(new PerformanceMetrics(goalAchievement, 0, 0));
+        review.setOverallScore(overallScore);
+        return review;
+    }
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(backfillService, "parallelism", 2);
+        ReflectionTestUtils.setField(backfillService, "batchSize", 2);
+        ReflectionTestUtils.setField(backfillService, "maxReviewsPerSecond", 0);
+        when(scoringPolicies.forDepartment(any())).thenReturn(ScoringWeights.DEFAULT);
+        when(scoringPolicies.forDepartment("qa_dept")).thenReturn(ScoringWeights.compile(Map.of("goalAchievement", 1.0)));
+        when(rescoreService.applyScoreChanges(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+    }
+
+    @Test
+    void split_CoversTheIdSpanWithOpenEnds() {
+        String first = new ObjectId(new Date(Instant.parse("2024-01-01T00:00:00Z").toEpochMilli())).toHexString();
+        String last = new ObjectId(new Date(Instant.parse("2024-01-01T00:01:39Z").toEpochMilli())).toHexString();
+
+        List<BackfillCheckpoint.Range> ranges = BackfillService.split(first, last, 4);
+
+        assertEquals(4, ranges.size());
+        assertNull(ranges.get(0).getFromId());
+        assertNull(ranges.get(3).getToId());
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1).getToId(), ranges.get(i).getFromId());
+        }
+        // 100 seconds in steps of 25
+        assertEquals(new ObjectId(ranges.get(1).getFromId()).getTimestamp() + 25,
+                new ObjectId(ranges.get(2).getFromId()).getTimestamp());
+        assertTrue(BackfillService.split(null, null, 4).isEmpty());
+        assertEquals(1, BackfillService.split("emp1-review", "emp9-review", 4).size());
+    }
+
+    @Test
+    void run_ResumesEachRangeFromItsCheckpointAndWritesOnlyChangedScores() {
+        BackfillCheckpoint.Range finished = new BackfillCheckpoint.Range(null, "b", "a9", 10, 4, 0, true);
+        BackfillCheckpoint.Range resumed = new BackfillCheckpoint.Range("b", null, "b1", 2, 0, 0, false);
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(BackfillService.RESCORE_JOB, BackfillCheckpoint.RUNNING,
+                new ArrayList<>(List.of(finished, resumed)), Instant.now(), Instant.now(), null, null);
+        when(reviewRepository.findScoringPage(eq("b1"), eq("b"), isNull(), anyInt())).thenReturn(List.of(
+                review("b2", "qa_dept", 70.0, 28.0),
+                review("b3", "dev_dept", 50.0, ScoringEngine.score(50, 0, 0))));
+        when(reviewRepository.findScoringPage(eq("b3"), eq("b"), isNull(), anyInt())).thenReturn(List.of(
+                review("b4", "qa_dept", 40.0, 16.0)));
+
+        backfillService.run(checkpoint);
+
+        verify(reviewRepository, never()).findScoringPage(eq("a9"), any(), any(), anyInt());
+        assertEquals(BackfillCheckpoint.COMPLETED, checkpoint.getStatus());
+        assertEquals(5, resumed.getProcessed());
+        assertEquals(2, resumed.getUpdated());
+        assertEquals("b4", resumed.getLastId());
+        assertTrue(resumed.isDone());
+        verify(checkpointRepository, times(2)).saveRange(BackfillService.RESCORE_JOB, 1, resumed);
+        verify(checkpointRepository).save(checkpoint);
+        verify(rescoreService, times(2)).applyScoreChanges(anyList());
+        verify(rescoreService).reloadScores();
+    }
+
+    @Test
+    void run_StoppedWhileWaitingForNotBefore_LeavesRangesUntouched() {
+        BackfillCheckpoint.Range range = new BackfillCheckpoint.Range(null, null);
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(BackfillService.RESCORE_JOB, BackfillCheckpoint.RUNNING,
+                new ArrayList<>(List.of(range)), Instant.now(), Instant.now(), null, Instant.now().plusSeconds(3600));
+        ReflectionTestUtils.setField(backfillService, "stopRequested", true);
+
+        backfillService.run(checkpoint);
+
+        assertEquals(BackfillCheckpoint.STOPPED, checkpoint.getStatus());
+        verify(reviewRepository, never()).findScoringPage(any(), any(), any(), anyInt());
+        verify(rescoreService, never()).reloadScores();
+    }
+}
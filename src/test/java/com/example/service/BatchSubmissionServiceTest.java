@@ -0,0 +1,180 @@
+package com.example.service;
+
+import com.example.dto.BatchItemResult;
+import com.example.dto.PerformanceReviewRequest;
+import com.example.model.PerformanceReview;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BatchSubmissionServiceTest {
+
+    @Mock
+    private PerformanceReviewService performanceReviewService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private BatchSubmissionService batchSubmissionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(batchSubmissionService, "chunkSize", 2);
+
+        when(performanceReviewService.createReview(any(PerformanceReviewRequest.class))).thenAnswer(invocation -> {
+            PerformanceReviewRequest request = invocation.getArgument(0);
+            if (request.getReviewerId() == null) {
+                throw new IllegalArgumentException("Missing required fields: employeeId or reviewerId");
+            }
+            PerformanceReview review = new PerformanceReview();
+            review.setEmployeeId(request.getEmployeeId());
+            return review;
+        });
+        when(performanceReviewService.saveReviews(anyList())).thenAnswer(invocation -> {
+            List<PerformanceReview> reviews = invocation.getArgument(0);
+            reviews.forEach(review -> review.setId("id-" + review.getEmployeeId()));
+            return reviews;
+        });
+    }
+
+    @Test
+    void submit_JsonArray_ReportsEveryItemInOrderAndWritesInChunks() throws Exception {
+        // Given
+        String body = "[" + item("emp1", "rev1") + "," + item("emp2", null) + ","
+                + "{\"employeeId\":\"emp3\",\"metrics\":\"oops\"}," + item("emp4", "rev1") + ","
+                + item("emp5", "rev1") + "]";
+
+        // When
+        List<BatchItemResult> results = submit(body);
+
+        // Then
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertEquals(BatchItemResult.SUBMITTED, results.get(0).getStatus());
+        assertEquals("id-emp1", results.get(0).getReviewId());
+        assertEquals(BatchItemResult.REJECTED, results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertEquals(BatchItemResult.REJECTED, results.get(2).getStatus());
+        assertEquals("id-emp4", results.get(3).getReviewId());
+        assertEquals("id-emp5", results.get(4).getReviewId());
+        // Chunks of two items, rejected ones included, so at most two reviews per bulk insert
+        verify(performanceReviewService, times(3)).saveReviews(anyList());
+    }
+
+    @Test
+    void submit_NdjsonWithMalformedLine_StopsReadingAtThatLine() throws Exception {
+        // Given
+        String body = item("emp1", "rev1") + "\n{not json\n" + item("emp2", "rev1") + "\n";
+
+        // When
+        List<BatchItemResult> results = submit(body);
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals(BatchItemResult.SUBMITTED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.REJECTED, results.get(1).getStatus());
+        verify(performanceReviewService).saveReviews(argThat(reviews -> reviews.size() == 1));
+    }
+
+    @Test
+    void submit_BulkWriteError_MarksOnlyThatItemFailed() throws Exception {
+        // Given
+        BulkOperationException bulkError = mock(BulkOperationException.class);
+        when(bulkError.getErrors()).thenReturn(List.of(
+            new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)));
+        doAnswer(invocation -> {
+            List<PerformanceReview> reviews = invocation.getArgument(0);
+            reviews.get(0).setId("id-emp1");
+            throw bulkError;
+        }).when(performanceReviewService).saveReviews(anyList());
+
+        // When
+        List<BatchItemResult> results = submit("[" + item("emp1", "rev1") + "," + item("emp2", "rev1") + "]");
+
+        // Then
+        assertEquals(BatchItemResult.SUBMITTED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.FAILED, results.get(1).getStatus());
+        assertEquals("Document failed validation", results.get(1).getError());
+        assertNull(results.get(1).getReviewId());
+    }
+
+    @Test
+    void submit_DuplicateIdempotencyKeys_MarksItemsDuplicate() throws Exception {
+        // Given - emp1 was stored recently, emp2 hits the unique index
+        when(performanceReviewService.recentDuplicateOf(argThat(review -> "emp1".equals(review.getEmployeeId()))))
+            .thenReturn("stored-emp1");
+        BulkOperationException bulkError = mock(BulkOperationException.class);
+        when(bulkError.getErrors()).thenReturn(List.of(
+            new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0)));
+        doAnswer(invocation -> {
+            List<PerformanceReview> reviews = invocation.getArgument(0);
+            reviews.get(0).setId("stored-emp2");
+            throw bulkError;
+        }).when(performanceReviewService).saveReviews(anyList());
+
+        // When
+        List<BatchItemResult> results = submit("[" + item("emp1", "rev1") + "," + item("emp2", "rev1") + "]");
+
+        // Then
+        assertEquals(BatchItemResult.DUPLICATE, results.get(0).getStatus());
+        assertEquals("stored-emp1", results.get(0).getReviewId());
+        assertEquals(BatchItemResult.DUPLICATE, results.get(1).getStatus());
+        assertEquals("stored-emp2", results.get(1).getReviewId());
+        assertNull(results.get(1).getError());
+        verify(performanceReviewService).saveReviews(argThat(reviews -> reviews.size() == 1));
+    }
+
+    @Test
+    void submit_KeyRepeatedWithinChunk_AnswersTheSecondWithTheFirstsId() throws Exception {
+        // Given - saveReviews skips the second and gives it the stored review's id
+        when(performanceReviewService.saveReviews(anyList())).thenAnswer(invocation -> {
+            List<PerformanceReview> reviews = invocation.getArgument(0);
+            reviews.get(0).setId("id-emp1");
+            reviews.get(1).setId("id-emp1");
+            return List.of(reviews.get(0));
+        });
+
+        // When
+        List<BatchItemResult> results = submit("[" + item("emp1", "rev1") + "," + item("emp1", "rev1") + "]");
+
+        // Then
+        assertEquals(BatchItemResult.SUBMITTED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.DUPLICATE, results.get(1).getStatus());
+        assertEquals("id-emp1", results.get(1).getReviewId());
+    }
+
+    private List<BatchItemResult> submit(String body) throws Exception {
+        List<BatchItemResult> results = new ArrayList<>();
+        batchSubmissionService.submit(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), results::add);
+        return results;
+    }
+
+    private String item(String employeeId, String reviewerId) {
+        return "{\"employeeId\":\"" + employeeId + "\","
+                + (reviewerId != null ? "\"reviewerId\":\"" + reviewerId + "\"," : "")
+                + "\"metrics\":{\"goalAchievement\":80,\"skillLevel\":80,\"teamwork\":80},"
+                + "\"employeeInfo\":{\"departmentId\":\"dept1\",\"role\":\"developer\"}}";
+    }
+}
@@ -4,17 +4,33 @@ import com.example.dto.PerformanceReviewRequest;
 import com.example.dto.SubmissionResponse;
 import com.example.model.EmployeeInfo;
 import com.example.model.PerformanceMetrics;
+import com.example.model.PerformanceReview;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.bson.BsonDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class KafkaConsumerServiceTest {
@@ -25,12 +41,19 @@ class KafkaConsumerServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ReviewRetryRouter retryRouter;
+
     @InjectMocks
     private KafkaConsumerService kafkaConsumerService;
 
     private static final String TOPIC = "performance-reviews";
     private static final int PARTITION = 0;
     private static final long OFFSET = 123L;
+    private static final long TIMESTAMP = 1700000000000L;
 
     @BeforeEach
     void setUp() {
@@ -40,7 +63,7 @@ class KafkaConsumerServiceTest {
     @Test
     void consumePerformanceReview_ValidMessage_ProcessesSuccessfully() throws Exception {
         // Given
-        String message = "{\"employeeId\":\"emp1\",\"reviewerId\":\"reviewer1\"}";
+        byte[] message = "{\"employeeId\":\"emp1\",\"reviewerId\":\"reviewer1\"}".getBytes(StandardCharsets.UTF_8);
         PerformanceReviewRequest request = createValidRequest();
         SubmissionResponse response = new SubmissionResponse("review1", "submitted");
 
@@ -48,7 +71,7 @@ class KafkaConsumerServiceTest {
         when(performanceReviewService.submitReview(request)).thenReturn(response);
 
         // When
-        kafkaConsumerService.consumePerformanceReview(message, TOPIC, PARTITION, OFFSET);
+        kafkaConsumerService.consumePerformanceReview(message, TOPIC, PARTITION, OFFSET, TIMESTAMP);
 
         // Then
         verify(objectMapper).readValue(message, PerformanceReviewRequest.class);
@@ -58,20 +81,20 @@ class KafkaConsumerServiceTest {
     @Test
     void consumePerformanceReview_InvalidJson_ThrowsException() throws Exception {
         // Given
-        String invalidMessage = "{invalid-json}";
+        byte[] invalidMessage = "{invalid-json}".getBytes(StandardCharsets.UTF_8);
         when(objectMapper.readValue(invalidMessage, PerformanceReviewRequest.class))
             .thenThrow(new RuntimeException("Invalid JSON"));
 
         // When/Then
         assertThrows(RuntimeException.class, () -> 
-            kafkaConsumerService.consumePerformanceReview(invalidMessage, TOPIC, PARTITION, OFFSET));
+            kafkaConsumerService.consumePerformanceReview(invalidMessage, TOPIC, PARTITION, OFFSET, TIMESTAMP));
         verify(performanceReviewService, never()).submitReview(any());
     }
 
     @Test
     void consumePerformanceReview_ServiceError_ThrowsException() throws Exception {
         // Given
-        String message = "{\"employeeId\":\"emp1\",\"reviewerId\":\"reviewer1\"}";
+        byte[] message = "{\"employeeId\":\"emp1\",\"reviewerId\":\"reviewer1\"}".getBytes(StandardCharsets.UTF_8);
         PerformanceReviewRequest request = createValidRequest();
 
         when(objectMapper.readValue(message, PerformanceReviewRequest.class)).thenReturn(request);
@@ -80,7 +103,190 @@ class KafkaConsumerServiceTest {
 
         // When/Then
         assertThrows(RuntimeException.class, () -> 
-            kafkaConsumerService.consumePerformanceReview(message, TOPIC, PARTITION, OFFSET));
+            kafkaConsumerService.consumePerformanceReview(message, TOPIC, PARTITION, OFFSET, TIMESTAMP));
+    }
+
+    @Test
+    void consumePerformanceReviewBatch_ValidMessages_SavesWithSingleBulkInsert() throws Exception {
+        // Given
+        PerformanceReviewRequest request = createValidRequest();
+        PerformanceReview review = new PerformanceReview();
+        when(objectMapper.readValue(any(byte[].class), eq(PerformanceReviewRequest.class))).thenReturn(request);
+        when(performanceReviewService.createReview(request)).thenReturn(review);
+
+        // When
+        kafkaConsumerService.consumePerformanceReviewBatch(List.of(record(0, "{}"), record(1, "{}"), record(2, "{}")));
+
+        // Then
+        verify(performanceReviewService, times(3)).createReview(request);
+        verify(performanceReviewService).saveReviews(argThat(reviews -> reviews.size() == 3));
+        verify(performanceReviewService, never()).submitReview(any());
+    }
+
+    @Test
+    void consumePerformanceReviewBatch_InvalidMessage_SkipsOnlyThatRecord() throws Exception {
+        // Given
+        PerformanceReviewRequest request = createValidRequest();
+        when(objectMapper.readValue(json("{}"), PerformanceReviewRequest.class)).thenReturn(request);
+        when(objectMapper.readValue(json("{invalid-json}"), PerformanceReviewRequest.class))
+            .thenThrow(new RuntimeException("Invalid JSON"));
+        when(performanceReviewService.createReview(request)).thenReturn(new PerformanceReview());
+
+        // When
+        kafkaConsumerService.consumePerformanceReviewBatch(
+            List.of(record(0, "{}"), record(1, "{invalid-json}"), record(2, (byte[]) null), record(3, "{}")));
+
+        // Then
+        verify(performanceReviewService).saveReviews(argThat(reviews -> reviews.size() == 2));
+        verify(retryRouter).accept(argThat(record -> record.offset() == 1), any(RuntimeException.class));
+        verify(retryRouter).accept(argThat(record -> record.offset() == 2), any(IllegalArgumentException.class));
+        assertEquals(2.0, meterRegistry.counter("reviews.kafka.failures", "stage", "deserialize").count());
+        assertEquals(2L, meterRegistry.timer("reviews.kafka.ingest", "stage", "validate").count());
+        assertEquals(1L, meterRegistry.timer("reviews.kafka.ingest", "stage", "save").count());
+    }
+
+    @Test
+    void consumePerformanceReviewBatch_BulkWriteError_FailsFromFirstFailedRecord() throws Exception {
+        // Given
+        PerformanceReviewRequest request = createValidRequest();
+        when(objectMapper.readValue(json("{}"), PerformanceReviewRequest.class)).thenReturn(request);
+        when(objectMapper.readValue(json("{invalid-json}"), PerformanceReviewRequest.class))
+            .thenThrow(new RuntimeException("Invalid JSON"));
+        when(performanceReviewService.createReview(request)).thenReturn(new PerformanceReview());
+
+        // Reviews at bulk positions 1 and 2 failed; bulk position 1 is record 2
+        BulkOperationException bulkError = mock(BulkOperationException.class);
+        when(bulkError.getErrors()).thenReturn(List.of(
+            new BulkWriteError(121, "Document failed validation", new BsonDocument(), 2),
+            new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)));
+        when(performanceReviewService.saveReviews(anyList())).thenThrow(bulkError);
+
+        // When/Then
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, () ->
+            kafkaConsumerService.consumePerformanceReviewBatch(
+                List.of(record(0, "{}"), record(1, "{invalid-json}"), record(2, "{}"), record(3, "{}"),
+                    record(4, "{invalid-json}"))));
+        assertEquals(2, exception.getIndex());
+        // Record 4 is redelivered with the rest from record 2, so it is dead-lettered then, not twice
+        verify(retryRouter).accept(argThat(record -> record.offset() == 1), any(RuntimeException.class));
+        verify(retryRouter, never()).accept(argThat(record -> record.offset() == 4), any());
+    }
+
+    @Test
+    void consumePerformanceReviewBatch_RedeliveredRecord_SkipsRecentDuplicateAndKeysByPosition() throws Exception {
+        // Given - record 1 was stored recently
+        when(objectMapper.readValue(any(byte[].class), eq(PerformanceReviewRequest.class)))
+            .thenAnswer(invocation -> createValidRequest());
+        PerformanceReview first = reviewFor("emp1", "r1");
+        PerformanceReview second = reviewFor("emp2", "r2");
+        PerformanceReview third = reviewFor("emp3", "r3");
+        when(performanceReviewService.createReview(any())).thenReturn(first, second, third);
+        when(performanceReviewService.recentDuplicateOf(second)).thenReturn("stored");
+
+        // When
+        kafkaConsumerService.consumePerformanceReviewBatch(List.of(record(0, "{}"), record(1, "{}"), record(2, "{}")));
+
+        // Then
+        verify(performanceReviewService).saveReviews(List.of(first, third));
+        verify(performanceReviewService).createReview(argThat(request ->
+            request.getIdempotencyKey().startsWith(TOPIC + "-" + PARTITION + "@1:")));
+    }
+
+    @Test
+    void consumePerformanceReviewBatch_WorkerLanes_KeepsEachEmployeeInOneOrderedLane() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(kafkaConsumerService, "workerLanes", 4);
+        PerformanceReviewRequest request = createValidRequest();
+        when(objectMapper.readValue(any(byte[].class), eq(PerformanceReviewRequest.class))).thenReturn(request);
+        PerformanceReview first = reviewFor("emp1", "r1");
+        PerformanceReview second = reviewFor("emp2", "r2");
+        PerformanceReview third = reviewFor("emp1", "r3");
+        when(performanceReviewService.createReview(request)).thenReturn(first, second, third);
+
+        // When
+        kafkaConsumerService.consumePerformanceReviewBatch(List.of(record(0, "{}"), record(1, "{}"), record(2, "{}")));
+
+        // Then
+        verify(performanceReviewService).saveReviews(List.of(first, third));
+        verify(performanceReviewService).saveReviews(List.of(second));
+    }
+
+    @Test
+    void consumePerformanceReviewBatch_BinaryMessages_DecodedWithoutJackson() throws Exception {
+        // Given - one producer has switched to the binary format, another still sends JSON
+        PerformanceReviewRequest request = createValidRequest();
+        PerformanceReviewRequest jsonRequest = createValidRequest();
+        when(objectMapper.readValue(json("{}"), PerformanceReviewRequest.class)).thenReturn(jsonRequest);
+        when(performanceReviewService.createReview(any())).thenAnswer(invocation -> new PerformanceReview());
+
+        // When
+        kafkaConsumerService.consumePerformanceReviewBatch(List.of(
+            record(0, ReviewWireFormat.encode(request)), record(1, "{}"),
+            record(2, new byte[]{ReviewWireFormat.MAGIC, ReviewWireFormat.VERSION, 5})));
+
+        // Then
+        verify(objectMapper, times(1)).readValue(any(byte[].class), eq(PerformanceReviewRequest.class));
+        verify(performanceReviewService).createReview(argThat(decoded -> decoded != jsonRequest
+            && decoded.getEmployeeId().equals("emp1") && decoded.getMetrics().getTeamwork() == 95
+            && decoded.getIdempotencyKey().startsWith(TOPIC + "-" + PARTITION + "@0:")));
+        verify(performanceReviewService).createReview(jsonRequest);
+        verify(retryRouter).accept(argThat(record -> record.offset() == 2), any(IllegalArgumentException.class));
+        verify(performanceReviewService).saveReviews(argThat(reviews -> reviews.size() == 2));
+    }
+
+    @Test
+    void consumeRetry_RecordNotDue_NacksUntilDueWithoutBlocking() throws Exception {
+        // Given
+        ConsumerRecord<String, byte[]> retried = new ConsumerRecord<>(TOPIC + "-retry-0", PARTITION, OFFSET, null, json("{}"));
+        when(retryRouter.dueAt(retried)).thenReturn(System.currentTimeMillis() + 60_000);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // When
+        long start = System.currentTimeMillis();
+        kafkaConsumerService.consumeRetry(retried, acknowledgment);
+
+        // Then - the container pauses and redelivers it later; the listener thread is not held
+        assertTrue(System.currentTimeMillis() - start < 1_000);
+        verify(acknowledgment).nack(argThat(sleep -> sleep.toMillis() > 50_000 && sleep.toMillis() <= 60_000));
+        verify(acknowledgment, never()).acknowledge();
+        verifyNoInteractions(performanceReviewService);
+    }
+
+    @Test
+    void consumeRetry_DueRecord_SubmitsReviewAndAcknowledges() throws Exception {
+        // Given
+        PerformanceReviewRequest request = createValidRequest();
+        ConsumerRecord<String, byte[]> retried = new ConsumerRecord<>(TOPIC + "-retry-0", PARTITION, OFFSET, null, json("{}"));
+        when(retryRouter.dueAt(retried)).thenReturn(System.currentTimeMillis() - 1);
+        when(objectMapper.readValue(json("{}"), PerformanceReviewRequest.class)).thenReturn(request);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // When
+        kafkaConsumerService.consumeRetry(retried, acknowledgment);
+
+        // Then
+        verify(performanceReviewService).submitReview(request);
+        verify(acknowledgment).acknowledge();
+        verify(acknowledgment, never()).nack(any(Duration.class));
+    }
+
+    private PerformanceReview reviewFor(String employeeId, String id) {
+        PerformanceReview review = new PerformanceReview();
+        review.setId(id);
+        review.setEmployeeId(employeeId);
+        return review;
+    }
+
+    private ConsumerRecord<String, byte[]> record(long offset, String value) {
+        return record(offset, value == null ? null : json(value));
+    }
+
+    private ConsumerRecord<String, byte[]> record(long offset, byte[] value) {
+        return new ConsumerRecord<>(TOPIC, PARTITION, offset, null, value);
+    }
+
+    private static byte[] json(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 
     private PerformanceReviewRequest createValidRequest() {
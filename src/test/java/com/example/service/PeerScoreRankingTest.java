@@ -0,0 +1,77 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeerScoreRankingTest {
+
+    @Test
+    void standing_ExcludesTheEmployeeAndCountsPeersAtOrBelow() {
+        PeerScoreRanking ranking = new PeerScoreRanking();
+        ranking.put("emp1", 95.0, 1);
+        ranking.put("emp2", 170.0, 2); // average 85
+        ranking.put("emp3", 75.0, 1);
+
+        PeerScoreRanking.Standing standing = ranking.standing("emp2", 85.0);
+
+        assertEquals(2, standing.peers());
+        assertEquals(1, standing.peersAtOrBelow());
+        assertEquals(85.0, standing.peerAverage(), 0.0001);
+    }
+
+    @Test
+    void add_MovesTheEmployeeToTheirNewAverage() {
+        PeerScoreRanking ranking = new PeerScoreRanking();
+        ranking.put("emp1", 60.0, 1);
+        ranking.put("emp2", 70.0, 1);
+
+        // emp1 goes from 60 to (60 + 100) / 2 = 80, above emp2
+        ranking.add("emp1", 100.0);
+        ranking.add("emp3", 50.0);
+
+        PeerScoreRanking.Standing standing = ranking.standing("emp2", 70.0);
+        assertEquals(2, standing.peers());
+        assertEquals(1, standing.peersAtOrBelow());
+        assertEquals(65.0, standing.peerAverage(), 0.0001);
+    }
+
+    @Test
+    void adjust_MovesTheSumButNotTheReviewCount() {
+        PeerScoreRanking ranking = new PeerScoreRanking();
+        ranking.put("emp1", 120.0, 2); // average 60
+        ranking.put("emp2", 70.0, 1);
+
+        // A re-scored review adds 40 to emp1's sum, so (120 + 40) / 2 = 80
+        ranking.adjust("emp1", 40.0);
+        ranking.adjust("unknown", 10.0);
+
+        PeerScoreRanking.Standing standing = ranking.standing("emp2", 70.0);
+        assertEquals(1, standing.peers());
+        assertEquals(0, standing.peersAtOrBelow());
+        assertEquals(80.0, standing.peerAverage(), 0.0001);
+    }
+
+    @Test
+    void standing_AfterManyUpdates_PeerAverageHasNoResidue() {
+        PeerScoreRanking ranking = new PeerScoreRanking();
+        ranking.put("emp1", 0.1, 1);
+        ranking.put("emp2", 10.0, 3);
+        for (int i = 0; i < 1000; i++) {
+            ranking.add("emp2", 100.0 / 3);
+            ranking.adjust("emp2", 0.1);
+        }
+
+        // Only emp1 remains once emp2 is excluded, so anything left of emp2 shows up here
+        assertEquals(0.1, ranking.standing("emp2", 50.0).peerAverage());
+    }
+
+    @Test
+    void standing_EmptyCohort_HasNoPeers() {
+        PeerScoreRanking.Standing standing = new PeerScoreRanking().standing("emp1", 50.0);
+
+        assertEquals(0, standing.peers());
+        assertEquals(0, standing.peersAtOrBelow());
+        assertEquals(0.0, standing.peerAverage());
+    }
+}
@@ -4,24 +4,49 @@ import com.example.dto.DepartmentSummary;
 import com.example.dto.PeerComparison;
 import com.example.dto.PerformanceReport;
 import com.example.dto.PerformanceReviewRequest;
+import com.example.dto.PerformanceTrends;
 import com.example.dto.SubmissionResponse;
 import com.example.model.EmployeeInfo;
+import com.example.model.EmployeeScoreStats;
+import com.example.model.PeerScoreRollup;
 import com.example.model.PerformanceMetrics;
 import com.example.model.PerformanceReview;
+import com.example.model.ScoringPolicy;
+import com.example.model.ScoringWeights;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
 import com.example.repository.PerformanceReviewRepository;
+import com.example.repository.ScoringPolicyRepository;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.util.Pair;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -30,7 +55,24 @@ class PerformanceReviewServiceTest {
     @Mock
     private PerformanceReviewRepository repository;
 
-    @InjectMocks
+    @Mock
+    private EmployeeScoreStatsRepository statsRepository;
+
+    @Mock
+    private PeerScoreRollupRepository rollupRepository;
+
+    @Mock
+    private ReportCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private ScoringPolicyRepository policyRepository;
+
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReportAssembler reportAssembler = new ReportAssembler();
+
+    private RecentReviewKeys recentKeys = new RecentReviewKeys(1000, Duration.ofHours(1));
+
     private PerformanceReviewService service;
 
     private PerformanceReviewRequest createRequest(String employeeId, String reviewerId, PerformanceMetrics metrics) {
@@ -73,19 +115,40 @@ class PerformanceReviewServiceTest {
         return review;
     }
 
-    private PerformanceReviewRepository.AggregationResult createPeerResult(String id, double avgScore) {
-        return new PerformanceReviewRepository.AggregationResult(id, avgScore);
+    // Folds reviews into stats the same way recordReviews does on submit
+    private EmployeeScoreStats createStats(String employeeId, PerformanceReview... reviews) {
+        EmployeeScoreStats stats = new EmployeeScoreStats();
+        stats.setEmployeeId(employeeId);
+        for (PerformanceReview review : reviews) {
+            stats.setReviewCount(stats.getReviewCount() + 1);
+            stats.setScoreSum(stats.getScoreSum() + review.getOverallScore());
+            stats.getMonthlyBuckets().merge(YearMonth.from(review.getReviewDate()).toString(),
+                    new EmployeeScoreStats.ScoreBucket(review.getOverallScore(), 1),
+                    (a, b) -> new EmployeeScoreStats.ScoreBucket(a.getSum() + b.getSum(), a.getCount() + b.getCount()));
+            stats.setDepartmentId(review.getEmployeeInfo().getDepartmentId());
+            stats.setRole(review.getEmployeeInfo().getRole());
+        }
+        return stats;
+    }
+
+    private PeerScoreRollup createPeerResult(String id, double avgScore) {
+        return new PeerScoreRollup(null, "dev_dept", "developer", id, 1, avgScore, LocalDate.now(), List.of());
     }
 
-    private PerformanceReviewRepository.DepartmentResult createDepartmentResult(String id, double avgScore, String role) {
+    private PeerScoreRollupRepository.DepartmentResult createDepartmentResult(String id, double avgScore, String role) {
         // Round the score to 2 decimal places to match service implementation
         double roundedScore = Math.round(avgScore * 100.0) / 100.0;
-        return new PerformanceReviewRepository.DepartmentResult(id, roundedScore, role);
+        return new PeerScoreRollupRepository.DepartmentResult(id, roundedScore, role);
     }
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(rollupRepository.recordReviews(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new PerformanceReviewService(repository, statsRepository, rollupRepository, cacheInvalidator,
+                new PeerRankIndex(rollupRepository, 1000, Duration.ofMinutes(1)), reportAssembler, recentKeys,
+                new AnalyticsIndex(repository, meterRegistry, false, 16),
+                new ScoringPolicies(policyRepository, 1000, Duration.ofMinutes(1)), meterRegistry);
     }
 
     // 1. Review Submission Tests
@@ -119,6 +182,9 @@ class PerformanceReviewServiceTest {
             assertEquals(expectedScore, review.getOverallScore(), 0.01);
             return true;
         }));
+        verify(statsRepository).recordReviews(List.of(savedReview));
+        verify(rollupRepository).recordReviews(List.of(savedReview));
+        verify(cacheInvalidator).evict(List.of(savedReview));
     }
 
     @Test
@@ -141,6 +207,177 @@ class PerformanceReviewServiceTest {
         assertThrows(IllegalArgumentException.class, () -> service.submitReview(request));
     }
 
+    @Test
+    void saveReviews_MultipleReviews_UsesSingleBulkInsert() {
+        List<PerformanceReview> reviews = Arrays.asList(createReview("emp1", 85.0), createReview("emp2", 90.0));
+
+        service.saveReviews(reviews);
+
+        verify(repository).bulkInsert(reviews);
+        verify(repository, never()).save(any(PerformanceReview.class));
+        verify(statsRepository).recordReviews(reviews);
+        verify(rollupRepository).recordReviews(reviews);
+        verify(cacheInvalidator).evict(reviews);
+    }
+
+    @Test
+    void saveReviews_PartialBulkFailure_RecordsStatsForInsertedReviewsOnly() {
+        PerformanceReview first = createReview("emp1", 85.0);
+        PerformanceReview second = createReview("emp2", 90.0);
+        PerformanceReview third = createReview("emp3", 95.0);
+        BulkOperationException bulkError = mock(BulkOperationException.class);
+        when(bulkError.getErrors()).thenReturn(List.of(new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)));
+        when(repository.bulkInsert(anyList())).thenThrow(bulkError);
+
+        assertThrows(BulkOperationException.class, () -> service.saveReviews(Arrays.asList(first, second, third)));
+        verify(statsRepository).recordReviews(List.of(first, third));
+        verify(rollupRepository).recordReviews(List.of(first, third));
+    }
+
+    @Test
+    void saveReviews_DuplicateIdempotencyKey_SkipsDuplicateWithoutFailing() {
+        PerformanceReview first = createReview("emp1", 85.0);
+        PerformanceReview second = createReview("emp2", 90.0);
+        BulkOperationException bulkError = mock(BulkOperationException.class);
+        when(bulkError.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1)));
+        when(repository.bulkInsert(anyList())).thenThrow(bulkError);
+
+        List<PerformanceReview> inserted = service.saveReviews(Arrays.asList(first, second));
+
+        assertEquals(List.of(first), inserted);
+        verify(statsRepository).recordReviews(List.of(first));
+        assertEquals(1.0, meterRegistry.counter("reviews.duplicates", "source", "index").count());
+    }
+
+    @Test
+    void saveReviews_RetriedAfterAggregateFailure_RecordsReviewsStoredByEarlierAttempt() {
+        PerformanceReview first = createReview("emp1", 85.0);
+        first.setId("review1");
+        PerformanceReview second = createReview("emp2", 90.0);
+        second.setId("review2");
+        BulkOperationException bulkError = mock(BulkOperationException.class);
+        when(bulkError.getErrors()).thenReturn(List.of(
+                new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0),
+                new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1)));
+        when(repository.bulkInsert(anyList())).thenThrow(bulkError);
+        // The first attempt stored review1 and failed before recording it; review2's
+        // idempotency key belongs to another stored review
+        when(repository.findExistingIds(List.of("review1", "review2"))).thenReturn(Set.of("review1"));
+
+        List<PerformanceReview> inserted = service.saveReviews(Arrays.asList(first, second));
+
+        assertEquals(List.of(first), inserted);
+        verify(statsRepository).recordReviews(List.of(first));
+        verify(rollupRepository).recordReviews(List.of(first));
+        assertEquals(1.0, meterRegistry.counter("reviews.duplicates", "source", "index").count());
+    }
+
+    @Test
+    void submitReview_RepeatedIdempotencyKey_ReturnsStoredReviewWithoutWriting() {
+        PerformanceReviewRequest request = createRequest("emp1", "reviewer1", createMetrics(80, 80, 80));
+        request.setIdempotencyKey("client-key-1");
+        when(repository.save(any(PerformanceReview.class))).thenAnswer(invocation -> {
+            PerformanceReview review = invocation.getArgument(0);
+            review.setId("review1");
+            return review;
+        });
+
+        SubmissionResponse first = service.submitReview(request);
+        SubmissionResponse second = service.submitReview(request);
+
+        assertEquals(SubmissionResponse.SUBMITTED, first.getStatus());
+        assertEquals(new SubmissionResponse("review1", SubmissionResponse.DUPLICATE), second);
+        verify(repository, times(1)).save(any(PerformanceReview.class));
+        verify(statsRepository, times(1)).recordReviews(anyList());
+    }
+
+    @Test
+    void submitReview_KeyStoredElsewhere_ReturnsExistingReviewFromIndexAndRecordsIt() {
+        PerformanceReviewRequest request = createRequest("emp1", "reviewer1", createMetrics(80, 80, 80));
+        request.setIdempotencyKey("client-key-1");
+        PerformanceReview existing = createReview("emp1", 80.0);
+        existing.setId("review0");
+        existing.setIdempotencyKey("client-key-1");
+        when(repository.save(any(PerformanceReview.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(repository.findByIdempotencyKey("client-key-1")).thenReturn(Optional.of(existing));
+
+        SubmissionResponse response = service.submitReview(request);
+
+        assertEquals(new SubmissionResponse("review0", SubmissionResponse.DUPLICATE), response);
+        // The aggregates skip it if whoever stored it recorded it too
+        verify(statsRepository).recordReviews(List.of(existing));
+        verify(rollupRepository).recordReviews(List.of(existing));
+    }
+
+    @Test
+    void submitReview_DuplicateNotFoundByKey_RethrowsRatherThanAnsweringWithoutId() {
+        PerformanceReviewRequest request = createRequest("emp1", "reviewer1", createMetrics(80, 80, 80));
+        request.setIdempotencyKey("client-key-1");
+        when(repository.save(any(PerformanceReview.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(repository.findByIdempotencyKey("client-key-1")).thenReturn(Optional.empty());
+
+        assertThrows(DuplicateKeyException.class, () -> service.submitReview(request));
+        verifyNoInteractions(statsRepository);
+    }
+
+    @Test
+    void submitReview_RedeliveredAfterRecordingFailed_RecordsTheStoredReview() {
+        PerformanceReviewRequest request = createRequest("emp1", "reviewer1", createMetrics(80, 80, 80));
+        request.setIdempotencyKey("client-key-1");
+        List<PerformanceReview> stored = new ArrayList<>();
+        when(repository.save(any(PerformanceReview.class))).thenAnswer(invocation -> {
+            if (!stored.isEmpty()) {
+                throw new DuplicateKeyException("E11000 duplicate key error: idempotency_key");
+            }
+            PerformanceReview review = invocation.getArgument(0);
+            review.setId("review1");
+            stored.add(review);
+            return review;
+        });
+        when(repository.findByIdempotencyKey("client-key-1")).thenAnswer(invocation -> stored.stream().findFirst());
+        doThrow(new DataAccessResourceFailureException("stats write timed out")).doNothing()
+                .when(statsRepository).recordReviews(anyList());
+
+        // The insert goes in, then recording it fails before its key is remembered, so the client retries
+        assertThrows(DataAccessResourceFailureException.class, () -> service.submitReview(request));
+        SubmissionResponse retried = service.submitReview(request);
+
+        assertEquals(new SubmissionResponse("review1", SubmissionResponse.DUPLICATE), retried);
+        verify(statsRepository, times(2)).recordReviews(List.of(stored.get(0)));
+        verify(rollupRepository).recordReviews(List.of(stored.get(0)));
+    }
+
+    @Test
+    void saveReviews_KeyStoredByEarlierDelivery_RecordsTheStoredReview() {
+        PerformanceReview fresh = createReview("emp1", 85.0);
+        fresh.setId("review2");
+        PerformanceReview redelivered = createReview("emp2", 90.0);
+        redelivered.setId("review3");
+        redelivered.setIdempotencyKey("client-key-2");
+        PerformanceReview storedEarlier = createReview("emp2", 90.0);
+        storedEarlier.setId("review1");
+        storedEarlier.setIdempotencyKey("client-key-2");
+        BulkOperationException bulkError = mock(BulkOperationException.class);
+        when(bulkError.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1)));
+        when(repository.bulkInsert(anyList())).thenThrow(bulkError);
+        when(repository.findByIdempotencyKeyIn(List.of("client-key-2"))).thenReturn(List.of(storedEarlier));
+
+        List<PerformanceReview> inserted = service.saveReviews(Arrays.asList(fresh, redelivered));
+
+        assertEquals(List.of(fresh), inserted);
+        // Answered with the stored review's id
+        assertEquals("review1", redelivered.getId());
+        verify(statsRepository).recordReviews(List.of(fresh, storedEarlier));
+        verify(rollupRepository).recordReviews(List.of(fresh, storedEarlier));
+        assertEquals(1.0, meterRegistry.counter("reviews.duplicates", "source", "index").count());
+    }
+
+    @Test
+    void saveReviews_EmptyList_SkipsRepository() {
+        service.saveReviews(Collections.emptyList());
+        verifyNoInteractions(repository, statsRepository, rollupRepository, cacheInvalidator);
+    }
+
     // 2. Score Calculation Tests
     @Test
     void calculateOverallScore_ValidMetrics_CalculatesCorrectly() {
@@ -190,13 +427,10 @@ class PerformanceReviewServiceTest {
         PerformanceReview review3 = createReview(employeeId, 0);
         review3.setMetrics(createMetrics(75.0, 80.0, 70.0)); // (75*0.4 + 80*0.3 + 70*0.3) = 75.0
         review3.calculateOverallScore();
-        review3.setReviewDate(now.minusDays(2)); // Two days ago
-
-        List<PerformanceReview> allReviews = Arrays.asList(review1, review2, review3);
+        review3.setReviewDate(now.minusMonths(4)); // Before last quarter
 
-        when(repository.findByEmployeeId(employeeId)).thenReturn(allReviews);
-        when(repository.findByEmployeeIdAndReviewDateBetween(eq(employeeId), any(), any()))
-            .thenReturn(Arrays.asList(review1, review2)); // Last quarter reviews
+        when(repository.streamByEmployeeIdOrderByReviewDateDesc(employeeId))
+            .thenReturn(Stream.of(review2, review1, review3)); // Newest first
 
         // When
         PerformanceReport report = service.getEmployeePerformance(employeeId);
@@ -213,7 +447,7 @@ class PerformanceReviewServiceTest {
         var reviews = report.getReviews();
         assertEquals(90.0, reviews.get(0).getOverallScore(), 0.01); // Today's review
         assertEquals(84.5, reviews.get(1).getOverallScore(), 0.01); // Yesterday's review
-        assertEquals(75.0, reviews.get(2).getOverallScore(), 0.01); // Two days ago review
+        assertEquals(75.0, reviews.get(2).getOverallScore(), 0.01); // Four months ago review
         
         // Verify metrics details of the latest review
         var latestMetrics = reviews.get(0).getMetrics();
@@ -225,7 +459,7 @@ class PerformanceReviewServiceTest {
     @Test
     void getEmployeePerformance_NoReviews_ThrowsException() {
         String employeeId = "emp1";
-        when(repository.findByEmployeeId(employeeId)).thenReturn(Collections.emptyList());
+        when(repository.streamByEmployeeIdOrderByReviewDateDesc(employeeId)).thenReturn(Stream.empty());
         assertThrows(IllegalArgumentException.class, () -> service.getEmployeePerformance(employeeId));
     }
 
@@ -244,14 +478,12 @@ class PerformanceReviewServiceTest {
         PerformanceReview newestReview = createReview(employeeId, 95.0);
         newestReview.setReviewDate(now);
 
-        when(repository.findByEmployeeId(employeeId))
-            .thenReturn(Arrays.asList(oldestReview, middleReview, newestReview));
-        when(repository.findByEmployeeIdAndReviewDateBetween(eq(employeeId), any(), any()))
-            .thenReturn(Collections.emptyList());
+        when(repository.streamByEmployeeIdOrderByReviewDateDesc(employeeId))
+            .thenReturn(Stream.of(newestReview, middleReview, oldestReview));
 
         PerformanceReport report = service.getEmployeePerformance(employeeId);
 
-        // Verify reviews are sorted by date (newest first)
+        // Verify reviews keep the repository's date order (newest first)
         assertEquals(3, report.getReviews().size());
         assertEquals(now, report.getReviews().get(0).getReviewDate());
         assertEquals(now.minusMonths(3), report.getReviews().get(1).getReviewDate());
@@ -278,27 +510,163 @@ class PerformanceReviewServiceTest {
         PerformanceReview review4 = createReview(employeeId, 75.0);
         review4.setReviewDate(now.minusMonths(11));
 
-        List<PerformanceReview> allReviews = Arrays.asList(review1, review2, review3, review4);
-        List<PerformanceReview> quarterReviews = Arrays.asList(review1, review2);
-        List<PerformanceReview> yearReviews = Arrays.asList(review1, review2, review3, review4);
-
-        when(repository.findByEmployeeId(employeeId)).thenReturn(allReviews);
-        when(repository.findByEmployeeIdAndReviewDateBetween(eq(employeeId), any(), eq(now)))
-            .thenAnswer(invocation -> {
-                LocalDate startDate = invocation.getArgument(1);
-                if (startDate.equals(now.minusMonths(3))) {
-                    return quarterReviews;
-                } else if (startDate.equals(now.minusYears(1))) {
-                    return yearReviews;
-                }
-                return Collections.emptyList();
-            });
+        // Older than a year, excluded from both trends
+        PerformanceReview review5 = createReview(employeeId, 50.0);
+        review5.setReviewDate(now.minusMonths(13));
+
+        when(repository.streamByEmployeeIdOrderByReviewDateDesc(employeeId))
+            .thenReturn(Stream.of(review1, review2, review3, review4, review5));
 
         PerformanceReport report = service.getEmployeePerformance(employeeId);
 
+        // Verify everything came from a single repository query
+        verify(repository).streamByEmployeeIdOrderByReviewDateDesc(employeeId);
+        verifyNoMoreInteractions(repository);
+        verifyNoInteractions(statsRepository);
+
         // Verify trends calculations
         assertEquals(87.5, report.getTrends().getLastQuarter(), 0.01); // (90 + 85) / 2
         assertEquals(82.5, report.getTrends().getLastYear(), 0.01);    // (90 + 85 + 80 + 75) / 4
+        assertEquals(76.0, report.getAverageScore(), 0.01);            // (90 + 85 + 80 + 75 + 50) / 5
+    }
+
+    @Test
+    void getEmployeePerformance_Paginated_ReturnsPageWithAggregatesFromStats() {
+        String employeeId = "emp1";
+        LocalDate now = LocalDate.now();
+        PerformanceReview newest = createReview(employeeId, 90.0);
+        newest.setId("r3");
+        PerformanceReview middle = createReview(employeeId, 80.0);
+        middle.setId("r2");
+        middle.setReviewDate(now.minusMonths(5));
+        PerformanceReview oldest = createReview(employeeId, 70.0);
+        oldest.setId("r1");
+        oldest.setReviewDate(now.minusMonths(14));
+
+        when(statsRepository.findById(employeeId))
+            .thenReturn(Optional.of(createStats(employeeId, oldest, middle, newest)));
+        when(repository.findReviewPage(employeeId, null, null, 3)).thenReturn(Arrays.asList(newest, middle, oldest));
+
+        PerformanceReport report = service.getEmployeePerformance(employeeId, null, 2);
+
+        // Aggregates cover the whole history even though only one page is returned
+        assertEquals(80.0, report.getAverageScore(), 0.01);
+        assertEquals(90.0, report.getTrends().getLastQuarter(), 0.01);
+        assertEquals(85.0, report.getTrends().getLastYear(), 0.01);
+        assertEquals(2, report.getReviews().size());
+        assertNotNull(report.getNextCursor());
+        verify(repository, never()).streamByEmployeeIdOrderByReviewDateDesc(any());
+
+        // The cursor resumes after the last review of the page
+        when(repository.findReviewPage(employeeId, middle.getReviewDate(), "r2", 3)).thenReturn(List.of(oldest));
+
+        PerformanceReport nextPage = service.getEmployeePerformance(employeeId, report.getNextCursor(), 2);
+
+        assertEquals(1, nextPage.getReviews().size());
+        assertEquals(70.0, nextPage.getReviews().get(0).getOverallScore(), 0.01);
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @Test
+    void getEmployeePerformance_PaginatedTrendsUseTheSameExactDaysAsTheFullReport() {
+        String employeeId = "emp1";
+        LocalDate now = LocalDate.now();
+        LocalDate quarterAgo = now.minusMonths(3);
+        LocalDate yearAgo = now.minusYears(1);
+        // Each window edge with a review on both sides, newest first
+        List<PerformanceReview> reviews = new ArrayList<>();
+        double score = 30.0;
+        for (LocalDate reviewDate : List.of(now.plusDays(1), now, quarterAgo, quarterAgo.minusDays(1),
+                yearAgo, yearAgo.minusDays(1))) {
+            PerformanceReview review = createReview(employeeId, score);
+            review.setId("r" + reviews.size());
+            review.setReviewDate(reviewDate);
+            reviews.add(review);
+            score += 10.0;
+        }
+
+        when(repository.streamByEmployeeIdOrderByReviewDateDesc(employeeId)).thenReturn(reviews.stream());
+        when(statsRepository.findById(employeeId))
+            .thenReturn(Optional.of(createStats(employeeId, reviews.toArray(PerformanceReview[]::new))));
+        when(repository.findReviewPage(employeeId, null, null, 2)).thenReturn(reviews.subList(0, 2));
+        when(repository.findScoresBetween(eq(employeeId), anyList())).thenAnswer(invocation -> {
+            List<Pair<LocalDate, LocalDate>> ranges = invocation.getArgument(1);
+            return reviews.stream()
+                    .filter(review -> ranges.stream().anyMatch(range -> !review.getReviewDate().isBefore(range.getFirst())
+                            && !review.getReviewDate().isAfter(range.getSecond())))
+                    .toList();
+        });
+        AnalyticsIndex analyticsIndex = new AnalyticsIndex(repository, meterRegistry, true, 16);
+        when(repository.streamScores()).thenReturn(reviews.stream());
+        analyticsIndex.reload();
+        PerformanceReviewService indexed = new PerformanceReviewService(repository, statsRepository, rollupRepository,
+                cacheInvalidator, new PeerRankIndex(rollupRepository, 1000, Duration.ofMinutes(1)), reportAssembler,
+                recentKeys, analyticsIndex, new ScoringPolicies(policyRepository, 1000, Duration.ofMinutes(1)), meterRegistry);
+
+        PerformanceReport.Trends full = service.getEmployeePerformance(employeeId).getTrends();
+        PerformanceReport.Trends fromStats = service.getEmployeePerformance(employeeId, null, 1).getTrends();
+        PerformanceReport.Trends fromIndex = indexed.getEmployeePerformance(employeeId, null, 1).getTrends();
+
+        assertEquals(45.0, full.getLastQuarter(), 0.01);  // (40 + 50) / 2
+        assertEquals(55.0, full.getLastYear(), 0.01);     // (40 + 50 + 60 + 70) / 4
+        assertEquals(full, fromStats);
+        assertEquals(full, fromIndex);
+    }
+
+    @Test
+    void getEmployeePerformance_InvalidCursor_ThrowsException() {
+        when(statsRepository.findById("emp1")).thenReturn(Optional.of(createStats("emp1", createReview("emp1", 80.0))));
+        assertThrows(IllegalArgumentException.class, () -> service.getEmployeePerformance("emp1", "not-a-cursor", 10));
+    }
+
+    @Test
+    void getEmployeePerformance_PaginatedNoReviews_ThrowsException() {
+        when(statsRepository.findById("emp1")).thenReturn(Optional.empty());
+        assertThrows(IllegalArgumentException.class, () -> service.getEmployeePerformance("emp1", null, 10));
+    }
+
+    @Test
+    void getEmployeeTrends_AnswersWindowsFromMonthlyBuckets() {
+        String employeeId = "emp1";
+        LocalDate now = LocalDate.now();
+        PerformanceReview current = createReview(employeeId, 90.0);
+        PerformanceReview twoMonthsAgo = createReview(employeeId, 70.0);
+        twoMonthsAgo.setReviewDate(now.minusMonths(2));
+        PerformanceReview yearAgo = createReview(employeeId, 60.0);
+        yearAgo.setReviewDate(now.minusYears(1));
+        when(statsRepository.findMonthlyBucketsById(employeeId))
+            .thenReturn(Optional.of(createStats(employeeId, yearAgo, twoMonthsAgo, current)));
+
+        PerformanceTrends trends = service.getEmployeeTrends(employeeId, 3, 2);
+
+        assertEquals(2, trends.getWindow());
+        assertEquals(80.0, trends.getAverageScore(), 0.01);
+        assertEquals(3, trends.getMonths().size());
+
+        PerformanceTrends.Month oldest = trends.getMonths().get(0);
+        assertEquals(YearMonth.now().minusMonths(2).toString(), oldest.getMonth());
+        assertEquals(1, oldest.getReviewCount());
+        assertEquals(70.0, oldest.getRollingAverage(), 0.01);
+        assertNull(oldest.getYearOverYearChange());
+
+        PerformanceTrends.Month empty = trends.getMonths().get(1);
+        assertEquals(0, empty.getReviewCount());
+        assertNull(empty.getAverageScore());
+        assertEquals(70.0, empty.getRollingAverage(), 0.01);
+
+        PerformanceTrends.Month latest = trends.getMonths().get(2);
+        assertEquals(90.0, latest.getAverageScore(), 0.01);
+        assertEquals(90.0, latest.getRollingAverage(), 0.01);
+        assertEquals(30.0, latest.getYearOverYearChange(), 0.01);
+        // The same three months a year earlier held only the 60.0 review
+        assertEquals(20.0, trends.getYearOverYearChange(), 0.01);
+        verify(repository, never()).streamByEmployeeIdOrderByReviewDateDesc(any());
+    }
+
+    @Test
+    void getEmployeeTrends_InvalidWindow_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> service.getEmployeeTrends("emp1", 12, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.getEmployeeTrends("emp1", 121, 6));
     }
 
     // 4. Peer Comparison Tests
@@ -306,18 +674,18 @@ class PerformanceReviewServiceTest {
     void getPeerComparison_WithTopPerformer_Returns100thPercentile() {
         // Given
         String employeeId = "emp1";
-        List<PerformanceReview> reviews = Collections.singletonList(createReview(employeeId, 95.0));
+        EmployeeScoreStats stats = createStats(employeeId, createReview(employeeId, 95.0));
 
         // Create peer results with weighted scores
         // Each score is weighted: 40% goal achievement, 30% skill level, 30% teamwork
-        List<PerformanceReviewRepository.AggregationResult> peerResults = Arrays.asList(
+        List<PeerScoreRollup> peerResults = Arrays.asList(
             createPeerResult("emp1", 95.0), // 95 * 0.4 + 95 * 0.3 + 95 * 0.3 = 95.0
             createPeerResult("emp2", 85.0), // 85 * 0.4 + 85 * 0.3 + 85 * 0.3 = 85.0
             createPeerResult("emp3", 75.0)  // 75 * 0.4 + 75 * 0.3 + 75 * 0.3 = 75.0
         );
 
-        when(repository.findByEmployeeId(employeeId)).thenReturn(reviews);
-        when(repository.getPeerAggregation(eq("dev_dept"), eq("developer"))).thenReturn(peerResults);
+        when(statsRepository.findById(employeeId)).thenReturn(Optional.of(stats));
+        when(rollupRepository.findByDepartmentIdAndRole(eq("dev_dept"), eq("developer"))).thenReturn(peerResults);
 
         // When
         PeerComparison comparison = service.getPeerComparison(employeeId);
@@ -336,18 +704,18 @@ class PerformanceReviewServiceTest {
     @Test
     void getPeerComparison_WithMedianPerformer_Returns50thPercentile() {
         String employeeId = "emp2";
-        List<PerformanceReview> reviews = Collections.singletonList(createReview(employeeId, 85.0));
+        EmployeeScoreStats stats = createStats(employeeId, createReview(employeeId, 85.0));
 
         // Create peer results with weighted scores
         // Each score is weighted: 40% goal achievement, 30% skill level, 30% teamwork
-        List<PerformanceReviewRepository.AggregationResult> peerResults = Arrays.asList(
+        List<PeerScoreRollup> peerResults = Arrays.asList(
             createPeerResult("emp1", 95.0), // 95 * 0.4 + 95 * 0.3 + 95 * 0.3 = 95.0
             createPeerResult("emp2", 85.0), // 85 * 0.4 + 85 * 0.3 + 85 * 0.3 = 85.0
             createPeerResult("emp3", 75.0)  // 75 * 0.4 + 75 * 0.3 + 75 * 0.3 = 75.0
         );
 
-        when(repository.findByEmployeeId(employeeId)).thenReturn(reviews);
-        when(repository.getPeerAggregation(eq("dev_dept"), eq("developer"))).thenReturn(peerResults);
+        when(statsRepository.findById(employeeId)).thenReturn(Optional.of(stats));
+        when(rollupRepository.findByDepartmentIdAndRole(eq("dev_dept"), eq("developer"))).thenReturn(peerResults);
 
         PeerComparison comparison = service.getPeerComparison(employeeId);
 
@@ -365,19 +733,17 @@ class PerformanceReviewServiceTest {
     void getPeerComparison_SingleEmployee_HandlesCorrectly() {
         String employeeId = "emp1";
         
-        // Create reviews for the employee
-        List<PerformanceReview> reviews = Collections.singletonList(
-            createReview(employeeId, 85.0)
-        );
+        // Create stats for the employee
+        EmployeeScoreStats stats = createStats(employeeId, createReview(employeeId, 85.0));
 
         // Create peer results including both the employee and another peer
-        List<PerformanceReviewRepository.AggregationResult> peerResults = Arrays.asList(
+        List<PeerScoreRollup> peerResults = Arrays.asList(
             createPeerResult("emp1", 85.0),
             createPeerResult("emp2", 85.0)  // Add another peer with same score
         );
 
-        when(repository.findByEmployeeId(employeeId)).thenReturn(reviews);
-        when(repository.getPeerAggregation(eq("dev_dept"), eq("developer"))).thenReturn(peerResults);
+        when(statsRepository.findById(employeeId)).thenReturn(Optional.of(stats));
+        when(rollupRepository.findByDepartmentIdAndRole(eq("dev_dept"), eq("developer"))).thenReturn(peerResults);
 
         PeerComparison comparison = service.getPeerComparison(employeeId);
 
@@ -398,6 +764,57 @@ class PerformanceReviewServiceTest {
         assertEquals("developer", comparison.getRole());
     }
 
+    @Test
+    void getPeerComparison_AfterSavingReviews_UsesUpdatedRankingWithoutReloading() {
+        // Given - emp2 starts at 85, above emp1
+        String employeeId = "emp1";
+        when(rollupRepository.findByDepartmentIdAndRole(eq("dev_dept"), eq("developer"))).thenReturn(Arrays.asList(
+            createPeerResult("emp1", 80.0),
+            createPeerResult("emp2", 85.0)
+        ));
+        when(statsRepository.findById(employeeId)).thenReturn(Optional.of(createStats(employeeId, createReview(employeeId, 80.0))));
+        assertEquals(0.0, service.getPeerComparison(employeeId).getPercentileRank(), 0.01);
+
+        // When - emp2 drops to (85 + 65) / 2 = 75
+        service.saveReviews(List.of(createReview("emp2", 65.0)));
+        PeerComparison comparison = service.getPeerComparison(employeeId);
+
+        // Then
+        assertEquals(100.0, comparison.getPercentileRank(), 0.01);
+        assertEquals(75.0, comparison.getPeerAverageScore(), 0.01);
+        verify(rollupRepository, times(1)).findByDepartmentIdAndRole("dev_dept", "developer");
+    }
+
+    @Test
+    void analyticsIndexLoaded_AnswersStatsAndDepartmentQueriesWithoutMongo() {
+        AnalyticsIndex analyticsIndex = new AnalyticsIndex(repository, meterRegistry, true, 16);
+        service = new PerformanceReviewService(repository, statsRepository, rollupRepository, cacheInvalidator,
+                new PeerRankIndex(rollupRepository, 1000, Duration.ofMinutes(1)), reportAssembler, recentKeys,
+                analyticsIndex, new ScoringPolicies(policyRepository, 1000, Duration.ofMinutes(1)), meterRegistry);
+        when(repository.streamScores()).thenReturn(Stream.of(createReview("emp1", 90.0), createReview("emp2", 80.0)));
+        analyticsIndex.reload();
+
+        // Saved after the load, so only the index knows about it
+        service.saveReviews(List.of(createReview("emp3", 70.0)));
+        // Peer standing still comes from the cohort's ranking, loaded once from the rollups
+        when(rollupRepository.findByDepartmentIdAndRole("dev_dept", "developer")).thenReturn(Arrays.asList(
+            createPeerResult("emp1", 90.0),
+            createPeerResult("emp2", 80.0),
+            createPeerResult("emp3", 70.0)
+        ));
+
+        PeerComparison comparison = service.getPeerComparison("emp2");
+        DepartmentSummary summary = service.getDepartmentSummary("dev_dept");
+
+        assertEquals(50.0, comparison.getPercentileRank(), 0.01);
+        assertEquals(80.0, comparison.getPeerAverageScore(), 0.01);
+        assertEquals(3, summary.getEmployeeCount());
+        assertEquals("emp1", summary.getTopPerformers().get(0).getEmployeeId());
+        verify(statsRepository, never()).findById(any());
+        verify(rollupRepository, times(1)).findByDepartmentIdAndRole("dev_dept", "developer");
+        verify(rollupRepository, never()).getDepartmentAggregation(any());
+    }
+
     // 5. Department Summary Tests
     @Test
     void getDepartmentSummary_WithSingleEmployee_HandlesCorrectly() {
@@ -406,17 +823,17 @@ class PerformanceReviewServiceTest {
         // Create department result with weighted score
         // Score is weighted: 40% goal achievement, 30% skill level, 30% teamwork
         // Using 85.0 for all metrics: (85*0.4 + 85*0.3 + 85*0.3) = 85.0
-        List<PerformanceReviewRepository.DepartmentResult> results = Collections.singletonList(
+        List<PeerScoreRollupRepository.DepartmentResult> results = Collections.singletonList(
             createDepartmentResult("emp1", 85.0, "developer")
         );
 
         // Set up and verify mock
-        when(repository.getDepartmentAggregation(departmentId)).thenReturn(results);
+        when(rollupRepository.getDepartmentAggregation(departmentId)).thenReturn(results);
 
         DepartmentSummary summary = service.getDepartmentSummary(departmentId);
 
         // Verify mock was called
-        verify(repository).getDepartmentAggregation(departmentId);
+        verify(rollupRepository).getDepartmentAggregation(departmentId);
         
         // Print actual values for debugging
         System.out.println("Expected departmentId: " + departmentId);
@@ -453,7 +870,7 @@ class PerformanceReviewServiceTest {
         String departmentId = "dev_dept";
         
         // Create department results with weighted scores
-        List<PerformanceReviewRepository.DepartmentResult> results = Arrays.asList(
+        List<PeerScoreRollupRepository.DepartmentResult> results = Arrays.asList(
             createDepartmentResult("emp1", 95.0, "developer"), // Top performer
             createDepartmentResult("emp2", 90.0, "developer"), // Top performer
             createDepartmentResult("emp3", 85.0, "developer"), // Low performer
@@ -462,7 +879,7 @@ class PerformanceReviewServiceTest {
             createDepartmentResult("emp6", 70.0, "developer")  // Low performer
         );
 
-        when(repository.getDepartmentAggregation(departmentId)).thenReturn(results);
+        when(rollupRepository.getDepartmentAggregation(departmentId)).thenReturn(results);
 
         DepartmentSummary summary = service.getDepartmentSummary(departmentId);
 
@@ -494,17 +911,48 @@ class PerformanceReviewServiceTest {
         assertNull(lowPerformer4.getRank());
     }
 
+    @Test
+    void getDepartmentSummary_ConfiguredSizesAndThreshold_BoundsBothLists() {
+        String departmentId = "dev_dept";
+        ReflectionTestUtils.setField(reportAssembler, "topPerformerCount", 3);
+        ReflectionTestUtils.setField(reportAssembler, "lowPerformerCount", 2);
+        ReflectionTestUtils.setField(reportAssembler, "lowPerformerThreshold", 80.0);
+
+        List<PeerScoreRollupRepository.DepartmentResult> results = Arrays.asList(
+            createDepartmentResult("emp5", 75.0, "developer"),
+            createDepartmentResult("emp1", 95.0, "developer"),
+            createDepartmentResult("emp7", 65.0, "developer"),
+            createDepartmentResult("emp3", 85.0, "developer"),
+            createDepartmentResult("emp2", 90.0, "developer"),
+            createDepartmentResult("emp6", 70.0, "developer"),
+            createDepartmentResult("emp4", 80.0, "developer")
+        );
+        when(rollupRepository.getDepartmentAggregation(departmentId)).thenReturn(results);
+
+        DepartmentSummary summary = service.getDepartmentSummary(departmentId);
+
+        assertEquals(7, summary.getEmployeeCount());
+        assertEquals(80.0, summary.getAverageScore(), 0.01);
+        assertEquals(List.of("emp1", "emp2", "emp3"),
+            summary.getTopPerformers().stream().map(DepartmentSummary.EmployeePerformance::getEmployeeId).toList());
+        assertEquals(List.of(1, 2, 3),
+            summary.getTopPerformers().stream().map(DepartmentSummary.EmployeePerformance::getRank).toList());
+        // emp4 is at the threshold, so the two lowest below it are listed
+        assertEquals(List.of("emp6", "emp7"),
+            summary.getLowPerformers().stream().map(DepartmentSummary.EmployeePerformance::getEmployeeId).toList());
+    }
+
     @Test
     void getDepartmentSummary_NoLowPerformers_HandlesCorrectly() {
         String departmentId = "dev_dept";
         
         // Create department results with all high scores
-        List<PerformanceReviewRepository.DepartmentResult> results = Arrays.asList(
+        List<PeerScoreRollupRepository.DepartmentResult> results = Arrays.asList(
             createDepartmentResult("emp1", 95.0, "developer"),
             createDepartmentResult("emp2", 90.0, "developer")  // Only 2 employees
         );
 
-        when(repository.getDepartmentAggregation(departmentId)).thenReturn(results);
+        when(rollupRepository.getDepartmentAggregation(departmentId)).thenReturn(results);
 
         DepartmentSummary summary = service.getDepartmentSummary(departmentId);
 
@@ -527,7 +975,7 @@ class PerformanceReviewServiceTest {
     @Test
     void getDepartmentSummary_NoReviews_ThrowsException() {
         String departmentId = "dev_dept";
-        when(repository.getDepartmentAggregation(departmentId)).thenReturn(Collections.emptyList());
+        when(rollupRepository.getDepartmentAggregation(departmentId)).thenReturn(Collections.emptyList());
         assertThrows(IllegalArgumentException.class, () -> service.getDepartmentSummary(departmentId));
     }
 
@@ -554,6 +1002,37 @@ class PerformanceReviewServiceTest {
         assertThrows(IllegalArgumentException.class, () -> service.submitReview(request));
     }
 
+    @Test
+    void createReview_NaNMetric_RejectedBeforeAnythingIsBuilt() {
+        PerformanceReviewRequest request = createRequest("emp1", "reviewer1", createMetrics(80, Double.NaN, 85));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.createReview(request));
+        assertEquals("Skill Level must be between 0 and 100", e.getMessage());
+
+        request.setMetrics(createMetrics(80, 90, 85));
+        PerformanceReview review = service.createReview(request);
+        assertEquals(LocalDate.now(), review.getReviewDate());
+        assertEquals(84.5, review.getOverallScore(), 0.0001);
+    }
+
+    @Test
+    void createReview_DepartmentPolicy_WeighsAdditionalMetrics() {
+        when(policyRepository.findById("dev_dept")).thenReturn(Optional.of(new ScoringPolicy("dev_dept",
+                Map.of("goalAchievement", 0.5, "codeQuality", 0.5), Instant.now())));
+        PerformanceMetrics metrics = new PerformanceMetrics(80, 10, 10, Map.of("codeQuality", 90.0));
+
+        PerformanceReview review = service.createReview(createRequest("emp1", "reviewer1", metrics));
+
+        assertEquals(85.0, review.getOverallScore(), 0.0001);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.createReview(createRequest("emp1", "reviewer1", createMetrics(80, 10, 10))));
+        assertEquals("Missing metric required by the scoring policy: codeQuality", e.getMessage());
+        // Compiled once and cached
+        verify(policyRepository, times(1)).findById("dev_dept");
+        assertThrows(IllegalArgumentException.class,
+                () -> ScoringWeights.compile(Map.of("goalAchievement", 0.5, "teamwork", 0.4)));
+    }
+
     @Test
     void submitReview_NullComments_Accepted() {
         PerformanceMetrics metrics = createMetrics(85, 90, 95);
@@ -0,0 +1,151 @@
+package com.example.service;
+
+import com.example.model.EmployeeInfo;
+import com.example.model.EmployeeScoreStats;
+import com.example.model.PeerScoreRollup;
+import com.example.model.PerformanceMetrics;
+import com.example.model.PerformanceReview;
+import com.example.repository.PeerScoreRollupRepository;
+import com.example.repository.ReactiveEmployeeScoreStatsRepository;
+import com.example.repository.ReactivePeerScoreRollupRepository;
+import com.example.repository.ReactivePerformanceReviewRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveReportServiceTest {
+
+    @Mock
+    private ReactivePerformanceReviewRepository repository;
+
+    @Mock
+    private ReactiveEmployeeScoreStatsRepository statsRepository;
+
+    @Mock
+    private ReactivePeerScoreRollupRepository rollupRepository;
+
+    @Mock
+    private PeerScoreRollupRepository blockingRollupRepository;
+
+    @Mock
+    private ReportCacheInvalidator cacheInvalidator;
+
+    private ReactiveReportService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new ReactiveReportService(repository, statsRepository, rollupRepository,
+                new PeerRankIndex(blockingRollupRepository, 1000, Duration.ofMinutes(1)), cacheInvalidator,
+                new ReportAssembler(), new SimpleMeterRegistry());
+    }
+
+    private PerformanceReview createReview(String employeeId, double score, LocalDate reviewDate) {
+        PerformanceReview review = new PerformanceReview();
+        review.setEmployeeId(employeeId);
+        review.setReviewerId("reviewer1");
+        review.setReviewDate(reviewDate);
+        review.setMetrics(new PerformanceMetrics(score, score, score));
+        review.setEmployeeInfo(new EmployeeInfo("dev_dept", "developer"));
+        review.calculateOverallScore();
+        return review;
+    }
+
+    @Test
+    void getEmployeePerformance_FoldsHistoryIntoReport() {
+        when(repository.findByEmployeeIdOrderByReviewDateDesc("emp1")).thenReturn(Flux.just(
+                createReview("emp1", 90.0, LocalDate.now()),
+                createReview("emp1", 70.0, LocalDate.now().minusMonths(6)),
+                createReview("emp1", 50.0, LocalDate.now().minusYears(2))));
+
+        StepVerifier.create(service.getEmployeePerformance("emp1"))
+                .assertNext(report -> {
+                    assertEquals("dev_dept", report.getDepartmentId());
+                    assertEquals(3, report.getReviews().size());
+                    assertEquals(70.0, report.getAverageScore(), 0.01);
+                    assertEquals(90.0, report.getTrends().getLastQuarter(), 0.01);
+                    assertEquals(80.0, report.getTrends().getLastYear(), 0.01);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getEmployeePerformance_NoReviews_Errors() {
+        when(repository.findByEmployeeIdOrderByReviewDateDesc("emp1")).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.getEmployeePerformance("emp1"))
+                .expectErrorMatches(e -> e instanceof IllegalArgumentException
+                        && e.getMessage().equals("No reviews found for employee: emp1"))
+                .verify();
+    }
+
+    @Test
+    void streamEmployeeReviews_ReadsOnlyWhatIsRequested() {
+        Flux<PerformanceReview> history = Flux.range(0, 100)
+                .map(i -> createReview("emp1", 80.0, LocalDate.now().minusDays(i)));
+        List<Long> requested = new ArrayList<>();
+        when(repository.findByEmployeeIdOrderByReviewDateDesc("emp1"))
+                .thenReturn(history.doOnRequest(requested::add));
+
+        StepVerifier.create(service.streamEmployeeReviews("emp1"), 2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+
+        assertEquals(2L, requested.stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void getPeerComparison_RanksAgainstCohort() {
+        EmployeeScoreStats stats = new EmployeeScoreStats();
+        stats.setEmployeeId("emp1");
+        stats.setDepartmentId("dev_dept");
+        stats.setRole("developer");
+        stats.setReviewCount(1);
+        stats.setScoreSum(90.0);
+        when(statsRepository.findById("emp1")).thenReturn(Mono.just(stats));
+        when(blockingRollupRepository.findByDepartmentIdAndRole("dev_dept", "developer")).thenReturn(List.of(
+                new PeerScoreRollup(null, "dev_dept", "developer", "emp1", 1, 90.0, LocalDate.now(), List.of()),
+                new PeerScoreRollup(null, "dev_dept", "developer", "emp2", 1, 80.0, LocalDate.now(), List.of()),
+                new PeerScoreRollup(null, "dev_dept", "developer", "emp3", 1, 95.0, LocalDate.now(), List.of())));
+
+        StepVerifier.create(service.getPeerComparison("emp1"))
+                .assertNext(comparison -> {
+                    assertEquals(90.0, comparison.getAverageScore(), 0.01);
+                    assertEquals(50.0, comparison.getPercentileRank(), 0.01);
+                    assertEquals(87.5, comparison.getPeerAverageScore(), 0.01);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getDepartmentSummary_RanksAggregatedEmployees() {
+        when(rollupRepository.getDepartmentAggregation("dev_dept")).thenReturn(Flux.just(
+                new PeerScoreRollupRepository.DepartmentResult("emp1", 95.0, "developer"),
+                new PeerScoreRollupRepository.DepartmentResult("emp2", 75.0, "developer"),
+                new PeerScoreRollupRepository.DepartmentResult("emp3", 85.0, "developer")));
+
+        StepVerifier.create(service.getDepartmentSummary("dev_dept"))
+                .assertNext(summary -> {
+                    assertEquals(85.0, summary.getAverageScore(), 0.01);
+                    assertEquals(3, summary.getEmployeeCount());
+                    assertEquals("emp1", summary.getTopPerformers().get(0).getEmployeeId());
+                    assertEquals("emp3", summary.getTopPerformers().get(1).getEmployeeId());
+                    assertEquals("emp2", summary.getLowPerformers().get(0).getEmployeeId());
+                })
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.service;
+
+import com.example.config.ReportCacheConfig;
+import com.example.dto.DepartmentSummary;
+import com.example.dto.PeerComparison;
+import com.example.dto.PerformanceReport;
+import com.example.model.EmployeeInfo;
+import com.example.model.PerformanceReview;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCacheInvalidatorTest {
+
+    private CacheManager cacheManager;
+    private ReportCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        ReportCacheConfig config = new ReportCacheConfig();
+        ReflectionTestUtils.setField(config, "maximumWeight", 100L);
+        ReflectionTestUtils.setField(config, "expireAfterWrite", Duration.ofMinutes(5));
+        cacheManager = config.cacheManager();
+        invalidator = new ReportCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    void evict_SubmittedReview_EvictsEmployeeCohortAndDepartmentOnly() {
+        // Given
+        Cache performance = cacheManager.getCache(ReportCacheConfig.EMPLOYEE_PERFORMANCE);
+        Cache peers = cacheManager.getCache(ReportCacheConfig.PEER_COMPARISON);
+        Cache departments = cacheManager.getCache(ReportCacheConfig.DEPARTMENT_SUMMARY);
+
+        performance.put("emp1", new PerformanceReport());
+        cachePage(performance, ReportCacheInvalidator.pageKey("emp1", null, 50));
+        cachePage(performance, ReportCacheInvalidator.pageKey("emp1", "trends", 12, 3));
+        performance.put("emp2", new PerformanceReport());
+        cachePeer(peers, "emp1", "dev_dept", "developer");
+        cachePeer(peers, "emp2", "dev_dept", "developer");
+        cachePeer(peers, "emp3", "dev_dept", "tester");
+        cachePeer(peers, "emp4", "ops_dept", "developer");
+        departments.put("dev_dept", new DepartmentSummary());
+        departments.put("ops_dept", new DepartmentSummary());
+
+        // When
+        invalidator.evict(List.of(review("emp1", "dev_dept", "developer")));
+
+        // Then
+        assertNull(performance.get("emp1"));
+        assertNull(performance.get(ReportCacheInvalidator.pageKey("emp1", null, 50)));
+        assertNull(performance.get(ReportCacheInvalidator.pageKey("emp1", "trends", 12, 3)));
+        assertNotNull(performance.get("emp2"));
+        assertNull(peers.get("emp1"));
+        assertNull(peers.get("emp2")); // Same department and role
+        assertNotNull(peers.get("emp3"));
+        assertNotNull(peers.get("emp4"));
+        assertNull(departments.get("dev_dept"));
+        assertNotNull(departments.get("ops_dept"));
+    }
+
+    @Test
+    void evict_EmployeeIdsSharingAPrefix_EvictOnlyTheirOwnPages() {
+        Cache performance = cacheManager.getCache(ReportCacheConfig.EMPLOYEE_PERFORMANCE);
+        cachePage(performance, ReportCacheInvalidator.pageKey("emp1", "x|null", 50));
+        cachePage(performance, ReportCacheInvalidator.pageKey("emp1|x", null, 50));
+
+        invalidator.evict(List.of(review("emp1|x", "dev_dept", "developer")));
+
+        assertNotNull(performance.get(ReportCacheInvalidator.pageKey("emp1", "x|null", 50)));
+        assertNull(performance.get(ReportCacheInvalidator.pageKey("emp1|x", null, 50)));
+    }
+
+    @Test
+    void trackPeerComparison_CohortWrittenDuringLoad_EvictsTheLoadedEntry() {
+        Cache peers = cacheManager.getCache(ReportCacheConfig.PEER_COMPARISON);
+        long generation = invalidator.peerGeneration("dev_dept", "developer");
+
+        // A review for another peer is saved while emp2's comparison is being computed
+        invalidator.evict(List.of(review("emp1", "dev_dept", "developer")));
+        PeerComparison comparison = peer("emp2", "dev_dept", "developer");
+        peers.put("emp2", comparison);
+        invalidator.trackPeerComparison(comparison, generation);
+
+        assertNull(peers.get("emp2"));
+
+        // The next load, started after the write, stays cached
+        cachePeer(peers, "emp2", "dev_dept", "developer");
+        assertNotNull(peers.get("emp2"));
+    }
+
+    @Test
+    void weigh_PerformanceReport_CountsItsReviews() {
+        PerformanceReport report = new PerformanceReport();
+        report.setReviews(List.of(new PerformanceReport.Review(), new PerformanceReport.Review()));
+
+        assertEquals(3, ReportCacheConfig.weigh(report));
+        assertEquals(1, ReportCacheConfig.weigh(peer("emp1", "dev_dept", "developer")));
+    }
+
+    private void cachePage(Cache performance, ReportCacheInvalidator.PageKey key) {
+        invalidator.trackPage(key);
+        performance.put(key, new PerformanceReport());
+    }
+
+    private void cachePeer(Cache peers, String employeeId, String departmentId, String role) {
+        long generation = invalidator.peerGeneration(departmentId, role);
+        PeerComparison comparison = peer(employeeId, departmentId, role);
+        peers.put(employeeId, comparison);
+        invalidator.trackPeerComparison(comparison, generation);
+    }
+
+    private PeerComparison peer(String employeeId, String departmentId, String role) {
+        PeerComparison comparison = new PeerComparison();
+        comparison.setEmployeeId(employeeId);
+        comparison.setDepartmentId(departmentId);
+        comparison.setRole(role);
+        return comparison;
+    }
+
+    private PerformanceReview review(String employeeId, String departmentId, String role) {
+        PerformanceReview review = new PerformanceReview();
+        review.setEmployeeId(employeeId);
+        review.setEmployeeInfo(new EmployeeInfo(departmentId, role));
+        return review;
+    }
+}
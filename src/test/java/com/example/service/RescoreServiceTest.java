@@ -0,0 +1,133 @@
+package com.example.service;
+
+import com.example.model.PerformanceMetrics;
+import com.example.model.EmployeeInfo;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.example.model.ScoringEngine;
+import com.example.model.ScoringWeights;
+import com.example.repository.EmployeeScoreStatsRepository;
+import com.example.repository.PeerScoreRollupRepository;
+import com.example.repository.PerformanceReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RescoreServiceTest {
+
+    @Mock
+    private PerformanceReviewRepository repository;
+
+    @Mock
+    private EmployeeScoreStatsRepository statsRepository;
+
+    @Mock
+    private PeerScoreRollupRepository rollupRepository;
+
+    @Mock
+    private PeerRankIndex peerRankIndex;
+
+    @Mock
+    private AnalyticsIndex analyticsIndex;
+
+    @Mock
+    private ReportCacheInvalidator cacheInvalidator;
+
+    @InjectMocks
+    private RescoreService rescoreService;
+
+    private final List<ScoreChange> written = Collections.synchronizedList(new ArrayList<>());
+
+    private static PerformanceReview review(String id, PerformanceMetrics metrics, double overallScore) {
+        PerformanceReview review = new PerformanceReview();
+        review.setId(id);
+        review.setEmployeeId("emp-" + id);
+        review.setReviewDate(LocalDate.of(2024, 6, 1));
+        review.setEmployeeInfo(new EmployeeInfo("dev_dept", "developer"));
+        review.setMetrics(metrics);
+        review.setOverallScore(overallScore);
+        return review;
+    }
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.updateOverallScores(anyList())).thenAnswer(invocation -> {
+            List<ScoreChange> changes = invocation.getArgument(0);
+            written.addAll(changes);
+            return changes.size();
+        });
+    }
+
+    @Test
+    void rescore_CollectsOnlyChangedScoresWithWhatTheyWere() {
+        ScoringWeights weights = ScoringWeights.compile(Map.of("goalAchievement", 0.5, "teamwork", 0.5));
+        List<PerformanceReview> batch = List.of(
+                review("r1", new PerformanceMetrics(80, 0, 60), 50.0),
+                // Already scored under the policy
+                review("r2", new PerformanceMetrics(90, 0, 90), 90.0),
+                review("r3", null, 40.0),
+                review("r4", new PerformanceMetrics(40, 0, 20), 10.0));
+        List<ScoreChange> changed = new ArrayList<>();
+
+        assertEquals(1, RescoreService.rescore(batch, review -> weights, changed));
+
+        assertEquals(List.of("r1", "r4"), changed.stream().map(change -> change.review().getId()).toList());
+        assertEquals(70.0, changed.get(0).review().getOverallScore());
+        assertEquals(50.0, changed.get(0).previousScore());
+        assertEquals(20.0, changed.get(0).delta());
+    }
+
+    @Test
+    void applyScoreChanges_WritesScoresAndMovesAggregatesByTheirDeltas() {
+        PerformanceReview review = review("r1", new PerformanceMetrics(80, 90, 85), ScoringEngine.score(80, 90, 85));
+        List<ScoreChange> changes = List.of(new ScoreChange(review, 50.0));
+
+        assertEquals(1, rescoreService.applyScoreChanges(changes));
+
+        assertEquals(changes, written);
+        verify(statsRepository).applyScoreChanges(changes);
+        verify(rollupRepository).applyScoreChanges(changes);
+        verify(peerRankIndex).recordScoreChanges(changes);
+        verify(analyticsIndex).recordScoreChanges(changes);
+        verify(statsRepository, never()).rebuildFromReviews(anyCollection());
+        assertEquals(0, rescoreService.applyScoreChanges(List.of()));
+        verify(repository, times(1)).updateOverallScores(anyList());
+    }
+
+    @Test
+    void applyScoreChanges_ScoreChangedConcurrently_RebuildsOnlyThoseEmployees() {
+        PerformanceReview first = review("r1", new PerformanceMetrics(80, 0, 60), 70.0);
+        PerformanceReview second = review("r2", new PerformanceMetrics(90, 0, 90), 90.0);
+        List<ScoreChange> changes = List.of(new ScoreChange(first, 50.0), new ScoreChange(second, 80.0));
+        when(repository.updateOverallScores(changes)).thenReturn(1);
+        when(analyticsIndex.isEnabled()).thenReturn(true);
+        // The second review was re-scored to 85 by someone else
+        PerformanceReview storedSecond = review("r2", new PerformanceMetrics(90, 0, 90), 85.0);
+        when(repository.findAllById(Set.of("r1", "r2"))).thenReturn(List.of(first, storedSecond));
+
+        assertEquals(1, rescoreService.applyScoreChanges(changes));
+
+        verify(statsRepository, never()).applyScoreChanges(anyList());
+        verify(rollupRepository, never()).applyScoreChanges(anyList());
+        verify(statsRepository).rebuildFromReviews(Set.of("emp-r1", "emp-r2"));
+        verify(rollupRepository).rebuildFromReviews(Set.of("emp-r1", "emp-r2"));
+        verify(peerRankIndex).invalidateAll();
+        // The index rows follow whichever score each review holds now
+        verify(analyticsIndex).recordScoreChanges(List.of(new ScoreChange(first, 50.0), new ScoreChange(storedSecond, 80.0)));
+    }
+}
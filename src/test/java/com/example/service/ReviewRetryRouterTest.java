@@ -0,0 +1,104 @@
+package com.example.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReviewRetryRouterTest {
+
+    private static final String TOPIC = "performance-reviews";
+
+    @Mock
+    private KafkaOperations<String, Object> kafkaTemplate;
+
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReviewRetryRouter router;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        router = new ReviewRetryRouter(kafkaTemplate, meterRegistry, TOPIC, 2,
+                Duration.ofSeconds(1), 2.0, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void accept_InvalidRecord_GoesStraightToDeadLetterTopic() {
+        router.accept(record(TOPIC, "{invalid-json"),
+                new RuntimeException("Error processing performance review", new JsonParseException(null, "bad")));
+
+        ProducerRecord<?, ?> published = published();
+        assertEquals(TOPIC + "-dlt", published.topic());
+        assertEquals(TOPIC, header(published, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(RuntimeException.class.getName(), header(published, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        assertEquals(1.0, meterRegistry.counter("reviews.kafka.dead.letters", "cause", "JsonParseException").count());
+    }
+
+    @Test
+    void accept_SaveFailure_GoesToNextRetryTopicWithBackoff() {
+        long before = System.currentTimeMillis();
+        router.accept(record(TOPIC, "{}"), new IllegalStateException("Mongo unavailable"));
+
+        ProducerRecord<?, ?> published = published();
+        assertEquals(TOPIC + "-retry-0", published.topic());
+        assertEquals("1", header(published, ReviewRetryRouter.ATTEMPT_HEADER));
+        long dueAt = Long.parseLong(header(published, ReviewRetryRouter.DUE_AT_HEADER));
+        assertTrue(dueAt >= before + 1000);
+        assertArrayEquals(new String[]{TOPIC + "-retry-0", TOPIC + "-retry-1"}, router.getRetryTopics());
+    }
+
+    @Test
+    void accept_LastAttemptFails_GoesToDeadLetterTopicWithOriginalPosition() {
+        ConsumerRecord<String, String> retried = record(TOPIC + "-retry-1", "{}");
+        retried.headers().add(ReviewRetryRouter.ATTEMPT_HEADER, "1".getBytes(StandardCharsets.UTF_8));
+        retried.headers().add(ReviewRetryRouter.ATTEMPT_HEADER, "2".getBytes(StandardCharsets.UTF_8));
+        retried.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, TOPIC.getBytes(StandardCharsets.UTF_8));
+
+        router.accept(retried, new IllegalStateException("Mongo unavailable"));
+
+        ProducerRecord<?, ?> published = published();
+        assertEquals(TOPIC + "-dlt", published.topic());
+        assertEquals(TOPIC, header(published, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+    }
+
+    @Test
+    void delay_GrowsByMultiplierUpToMaximum() {
+        assertEquals(Duration.ofSeconds(1), router.delay(1));
+        assertEquals(Duration.ofSeconds(4), router.delay(3));
+        assertEquals(Duration.ofSeconds(10), router.delay(5));
+    }
+
+    private ConsumerRecord<String, String> record(String topic, String value) {
+        return new ConsumerRecord<>(topic, 0, 42L, "emp1", value);
+    }
+
+    private ProducerRecord<?, ?> published() {
+        ArgumentCaptor<ProducerRecord> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private String header(ProducerRecord<?, ?> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
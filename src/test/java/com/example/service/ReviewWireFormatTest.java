@@ -0,0 +1,78 @@
+package com.example.service;
+
+import com.example.config.KafkaConfig;
+import com.example.dto.PerformanceReviewRequest;
+import com.example.model.EmployeeInfo;
+import com.example.model.PerformanceMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewWireFormatTest {
+
+    private static PerformanceReviewRequest request() {
+        PerformanceReviewRequest request = new PerformanceReviewRequest();
+        request.setEmployeeId("emp1");
+        request.setReviewerId("reviewer1");
+        request.setMetrics(new PerformanceMetrics(85.5, 90, 95, Map.of("codeQuality", 70.25, "délivery", 60.0)));
+        request.setEmployeeInfo(new EmployeeInfo("dev_dept", null));
+        request.setComments("Great work on the Zürich launch 🚀");
+        request.setIdempotencyKey("rev-1");
+        return request;
+    }
+
+    @Test
+    void encode_RoundTripsEveryFieldInFewerBytesThanJson() throws Exception {
+        PerformanceReviewRequest request = request();
+        ObjectMapper objectMapper = new KafkaConfig().objectMapper();
+
+        byte[] binary = ReviewWireFormat.encode(request);
+
+        assertTrue(ReviewWireFormat.isBinary(binary));
+        assertFalse(ReviewWireFormat.isBinary(objectMapper.writeValueAsBytes(request)));
+        assertEquals(request, ReviewWireFormat.decode(binary));
+        assertTrue(binary.length < objectMapper.writeValueAsBytes(request).length);
+
+        PerformanceReviewRequest empty = new PerformanceReviewRequest();
+        assertEquals(empty, ReviewWireFormat.decode(ReviewWireFormat.encode(empty)));
+    }
+
+    @Test
+    void decode_MalformedMessage_ThrowsIllegalArgument() {
+        byte[] binary = ReviewWireFormat.encode(request());
+
+        IllegalArgumentException truncated = assertThrows(IllegalArgumentException.class,
+                () -> ReviewWireFormat.decode(Arrays.copyOf(binary, binary.length - 3)));
+        assertEquals("Truncated review message", truncated.getMessage());
+
+        byte[] future = binary.clone();
+        future[1] = 2;
+        assertEquals("Unsupported review message version 2",
+                assertThrows(IllegalArgumentException.class, () -> ReviewWireFormat.decode(future)).getMessage());
+
+        // A huge additional-metrics count must not allocate before the bytes run out
+        byte[] hugeCount = {ReviewWireFormat.MAGIC, ReviewWireFormat.VERSION, 0, 0, 1,
+                0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(IllegalArgumentException.class, () -> ReviewWireFormat.decode(hugeCount));
+    }
+
+    @Test
+    void decode_FiveByteVarintOverflowing_ThrowsIllegalArgument() {
+        // 0xFFFFFFFF read as the employee id's length would be -1 and decode as null
+        byte[] negative = {ReviewWireFormat.MAGIC, ReviewWireFormat.VERSION,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        // Bits past the 32nd would be shifted out, leaving a length of 0
+        byte[] beyond32Bits = {ReviewWireFormat.MAGIC, ReviewWireFormat.VERSION,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10};
+
+        assertEquals("Malformed length in review message",
+                assertThrows(IllegalArgumentException.class, () -> ReviewWireFormat.decode(negative)).getMessage());
+        assertEquals("Malformed length in review message",
+                assertThrows(IllegalArgumentException.class, () -> ReviewWireFormat.decode(beyond32Bits)).getMessage());
+    }
+}
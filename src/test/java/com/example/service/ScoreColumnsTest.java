@@ -0,0 +1,90 @@
+package com.example.service;
+
+import com.example.model.EmployeeInfo;
+import com.example.model.EmployeeScoreStats;
+import com.example.model.PerformanceReview;
+import com.example.model.ScoreChange;
+import com.example.repository.PeerScoreRollupRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreColumnsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    private static PerformanceReview review(String employeeId, String departmentId, String role,
+                                            LocalDate reviewDate, double score) {
+        PerformanceReview review = new PerformanceReview();
+        review.setEmployeeId(employeeId);
+        review.setEmployeeInfo(new EmployeeInfo(departmentId, role));
+        review.setReviewDate(reviewDate);
+        review.setOverallScore(score);
+        return review;
+    }
+
+    @Test
+    void employeeStats_TotalsAllReviewsAndTakesTheLatestDepartmentAndRole() {
+        // Starts with capacity 16, so this also grows every column
+        ScoreColumns columns = new ScoreColumns(16);
+        for (int i = 0; i < 20; i++) {
+            columns.append(review("filler" + i, "ops_dept", "operator", TODAY, 50.0));
+        }
+        columns.append(review("emp1", "dev_dept", "developer", TODAY.minusYears(2), 60.0));
+        columns.append(review("emp1", "dev_dept", "developer", TODAY.minusMonths(6), 80.0));
+        columns.append(review("emp1", "qa_dept", "tester", TODAY.minusDays(10), 100.0));
+
+        EmployeeScoreStats stats = columns.employeeStats("emp1").orElseThrow();
+
+        assertEquals(23, columns.size());
+        assertEquals(3, stats.getReviewCount());
+        assertEquals(80.0, stats.averageScore(), 0.0001);
+        assertEquals("qa_dept", stats.getDepartmentId());
+        assertEquals("tester", stats.getRole());
+        assertEquals(TODAY.minusDays(10), stats.getLatestReviewDate());
+        assertEquals(100.0, columns.averageScoreBetween("emp1", TODAY.minusMonths(3), TODAY), 0.0001);
+        assertEquals(90.0, columns.averageScoreBetween("emp1", TODAY.minusYears(1), TODAY), 0.0001);
+        assertTrue(columns.employeeStats("unknown").isEmpty());
+        assertEquals(new EmployeeScoreStats.ScoreBucket(100.0, 1),
+                columns.monthlyStats("emp1").orElseThrow().getMonthlyBuckets().get("2024-06"));
+    }
+
+    @Test
+    void updateScore_MovesTheMatchingRowOnly() {
+        ScoreColumns columns = new ScoreColumns(16);
+        columns.append(review("emp1", "dev_dept", "developer", TODAY, 60.0));
+        columns.append(review("emp1", "dev_dept", "developer", TODAY.minusDays(1), 60.0));
+        columns.append(review("emp2", "dev_dept", "developer", TODAY, 60.0));
+
+        PerformanceReview rescored = review("emp1", "dev_dept", "developer", TODAY, 90.0);
+        assertTrue(columns.updateScore(new ScoreChange(rescored, 60.0)));
+        // Already moved, and the other department has no such row
+        assertFalse(columns.updateScore(new ScoreChange(rescored, 60.0)));
+        assertFalse(columns.updateScore(new ScoreChange(review("emp1", "qa_dept", "developer", TODAY.minusDays(1), 90.0), 60.0)));
+
+        assertEquals(90.0, columns.averageScoreBetween("emp1", TODAY, TODAY), 0.0001);
+        assertEquals(60.0, columns.averageScoreBetween("emp1", TODAY.minusDays(1), TODAY.minusDays(1)), 0.0001);
+        assertEquals(60.0, columns.employeeStats("emp2").orElseThrow().averageScore(), 0.0001);
+    }
+
+    @Test
+    void departmentResults_AveragesEachEmployeeAcrossRolesWithLatestRole() {
+        ScoreColumns columns = new ScoreColumns(16);
+        columns.append(review("emp1", "dev_dept", "developer", TODAY, 70.0));
+        columns.append(review("emp2", "dev_dept", "developer", TODAY, 90.0));
+        columns.append(review("emp1", "dev_dept", "lead", TODAY, 90.0));
+        columns.append(review("emp3", "qa_dept", "tester", TODAY, 50.0));
+
+        List<PeerScoreRollupRepository.DepartmentResult> results = columns.departmentResults("dev_dept");
+        results.sort(Comparator.comparing(PeerScoreRollupRepository.DepartmentResult::getId));
+
+        assertEquals(List.of(
+                new PeerScoreRollupRepository.DepartmentResult("emp1", 80.0, "lead"),
+                new PeerScoreRollupRepository.DepartmentResult("emp2", 90.0, "developer")), results);
+        assertTrue(columns.departmentResults("unknown").isEmpty());
+    }
+}